@@ -0,0 +1,106 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+// Reads commands written by BinaryCommandWriter straight into a CommandData
+// holder, without any text parsing.
+public class BinaryCommandReader implements Closeable {
+	private InputStream in;
+	private byte[] buffer;
+	private int position;
+	private int limit;
+
+	public BinaryCommandReader(InputStream in) throws IOException {
+		this.in = in;
+		this.buffer = new byte[1 << 16];
+		this.position = 0;
+		this.limit = 0;
+		if (!fill(5) || readInt() != BinaryCommandWriter.MAGIC || readByte() != BinaryCommandWriter.VERSION) {
+			throw new IOException("Not a binary command trace of this version");
+		}
+	}
+
+	// ================== External functions of Binary Command Reader====================
+
+	// Decodes the next command into the holder. Returns false at the end of the trace.
+	public boolean next(CommandData command) throws IOException {
+		if (!fill(1))
+			return false;
+
+		int header = readByte();
+		CommandType[] types = CommandType.values();
+		int ordinal = header & ~BinaryCommandWriter.HAS_TEXT;
+		if (ordinal >= types.length) {
+			throw new IOException("Corrupt binary command trace");
+		}
+		CommandType type = types[ordinal];
+
+		String rawCommand = null;
+		command.reset(type, type.getParamCount(), null);
+		for (int i = 0; i < type.getParamCount(); i++) {
+			command.setParam(i, readVarint());
+		}
+		if ((header & BinaryCommandWriter.HAS_TEXT) != 0) {
+			int length = readVarint();
+			if (!fill(length)) {
+				throw new EOFException("Truncated binary command trace");
+			}
+			rawCommand = new String(this.buffer, this.position, length, StandardCharsets.UTF_8);
+			this.position += length;
+			command.setRawCommand(rawCommand);
+		}
+		return true;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.in.close();
+	}
+
+	// ================== Internal functions of Binary Command Reader====================
+
+	// Makes sure at least n bytes are buffered; false if the input ends first
+	private boolean fill(int n) throws IOException {
+		if (this.limit - this.position >= n)
+			return true;
+
+		if (n > this.buffer.length) {
+			byte[] larger = new byte[Math.max(n, this.buffer.length * 2)];
+			System.arraycopy(this.buffer, this.position, larger, 0, this.limit - this.position);
+			this.buffer = larger;
+		} else {
+			System.arraycopy(this.buffer, this.position, this.buffer, 0, this.limit - this.position);
+		}
+		this.limit -= this.position;
+		this.position = 0;
+
+		while (this.limit < n) {
+			int read = this.in.read(this.buffer, this.limit, this.buffer.length - this.limit);
+			if (read < 0)
+				return false;
+			this.limit += read;
+		}
+		return true;
+	}
+
+	private int readByte() throws IOException {
+		if (this.position == this.limit && !fill(1)) {
+			throw new EOFException("Truncated binary command trace");
+		}
+		return this.buffer[this.position++] & 0xFF;
+	}
+
+	private int readInt() throws IOException {
+		return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+	}
+
+	private int readVarint() throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = readByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+		throw new IOException("Corrupt binary command trace");
+	}
+}
@@ -0,0 +1,87 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+// Writes commands in the binary trace format. A file starts with MAGIC and
+// VERSION, then holds one record per command:
+//
+//   header   one byte: the CommandType ordinal, plus HAS_TEXT when text follows
+//   params   getParamCount() unsigned LEB128 varints
+//   text     only with HAS_TEXT: a varint byte length and the UTF-8 command text
+//
+// The text is left out when the command is spelled the canonical way, which is
+// all a well formed trace needs; it is kept for unknown commands and odd spellings
+// so error messages quote the input exactly.
+public class BinaryCommandWriter implements Closeable {
+	public static final int MAGIC = 0x47415442;
+	public static final int VERSION = 1;
+	public static final int HAS_TEXT = 0x80;
+
+	private OutputStream out;
+	private byte[] buffer;
+	private int count;
+
+	public BinaryCommandWriter(OutputStream out) throws IOException {
+		this.out = out;
+		this.buffer = new byte[1 << 16];
+		this.count = 0;
+		writeInt(MAGIC);
+		writeByte(VERSION);
+	}
+
+	// ================== External functions of Binary Command Writer====================
+
+	// rawCommand is the text the command was parsed from
+	public void write(CommandData cmd, String rawCommand) throws IOException {
+		CommandType type = cmd.getType();
+		boolean hasText = type == CommandType.UNKNOWN || !cmd.toCanonicalString().equals(rawCommand);
+		writeByte(type.ordinal() | (hasText ? HAS_TEXT : 0));
+		for (int i = 0; i < type.getParamCount(); i++) {
+			writeVarint(cmd.getParam(i));
+		}
+		if (hasText) {
+			byte[] text = rawCommand != null ? rawCommand.getBytes(StandardCharsets.UTF_8) : new byte[0];
+			writeVarint(text.length);
+			for (byte b : text) {
+				writeByte(b);
+			}
+		}
+	}
+
+	public void flush() throws IOException {
+		this.out.write(this.buffer, 0, this.count);
+		this.count = 0;
+		this.out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		flush();
+		this.out.close();
+	}
+
+	// ================== Internal functions of Binary Command Writer====================
+
+	private void writeByte(int b) throws IOException {
+		if (this.count == this.buffer.length) {
+			this.out.write(this.buffer, 0, this.count);
+			this.count = 0;
+		}
+		this.buffer[this.count++] = (byte) b;
+	}
+
+	private void writeInt(int value) throws IOException {
+		writeByte(value >>> 24);
+		writeByte(value >>> 16);
+		writeByte(value >>> 8);
+		writeByte(value);
+	}
+
+	// Seven bits at a time, low bits first; negative values take five bytes
+	private void writeVarint(int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		writeByte(value);
+	}
+}
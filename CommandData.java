@@ -1,11 +1,16 @@
 public class CommandData {
 	private CommandType type;
 	private int[] params;
+	private int paramCount;
 	private String rawCommand;
+	private CharSequence rawSource;
+	private int rawStart;
+	private int rawEnd;
 
 	public CommandData(CommandType type, int[] params, String rawCommand) {
 		this.type = type;
 		this.params = params;
+		this.paramCount = params != null ? params.length : 0;
 		this.rawCommand = rawCommand;
 	}
 
@@ -14,24 +19,46 @@ public class CommandData {
 		return type;
 	}
 
+	// A reused holder may return a buffer longer than getParamCount()
 	public int[] getParams() {
 		return params;
 	}
 
 	public String getRawCommand() {
+		// A command decoded from a buffer only builds its string when asked for it
+		if (rawCommand == null && rawSource != null) {
+			rawCommand = rawSource.subSequence(rawStart, rawEnd).toString();
+			rawSource = null;
+		}
+		// A binary trace leaves out text that is spelled the canonical way
+		if (rawCommand == null && type != null && type.getCommandName() != null) {
+			rawCommand = toCanonicalString();
+		}
 		return rawCommand;
 	}
 
+	// The command as written with the usual spelling, e.g. "Tick(5)" or
+	// "CancelFlight(3, 10)"
+	public String toCanonicalString() {
+		StringBuilder sb = new StringBuilder(type.getCommandName()).append('(');
+		for (int i = 0; i < paramCount; i++) {
+			if (i > 0)
+				sb.append(", ");
+			sb.append(params[i]);
+		}
+		return sb.append(')').toString();
+	}
+
 	// Convenience methods for specific parameters
 	public int getParam(int index) {
-		if (params != null && index >= 0 && index < params.length) {
+		if (params != null && index >= 0 && index < paramCount) {
 			return params[index];
 		}
 		return -1;
 	}
 
 	public int getParamCount() {
-		return params != null ? params.length : 0;
+		return paramCount;
 	}
 
 	// Setters
@@ -41,21 +68,47 @@ public class CommandData {
 
 	public void setParams(int[] params) {
 		this.params = params;
+		this.paramCount = params != null ? params.length : 0;
 	}
 
 	public void setRawCommand(String rawCommand) {
 		this.rawCommand = rawCommand;
+		this.rawSource = null;
+	}
+
+	// The source must stay unchanged until getRawCommand() is called or the holder
+	// is reset
+	public void setRawSource(CharSequence rawSource, int rawStart, int rawEnd) {
+		this.rawCommand = null;
+		this.rawSource = rawSource;
+		this.rawStart = rawStart;
+		this.rawEnd = rawEnd;
+	}
+
+	// Refills a reused holder in place; parameters are then written with setParam
+	public void reset(CommandType type, int paramCount, String rawCommand) {
+		if (paramCount > 0 && (this.params == null || this.params.length < paramCount)) {
+			this.params = new int[Math.max(paramCount, 5)];
+		}
+		this.type = type;
+		this.paramCount = paramCount;
+		this.rawCommand = rawCommand;
+		this.rawSource = null;
+	}
+
+	public void setParam(int index, int value) {
+		this.params[index] = value;
 	}
 
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
 		sb.append("CommandData{type=").append(type);
-		if (params != null && params.length > 0) {
+		if (params != null && paramCount > 0) {
 			sb.append(", params=[");
-			for (int i = 0; i < params.length; i++) {
+			for (int i = 0; i < paramCount; i++) {
 				sb.append(params[i]);
-				if (i < params.length - 1)
+				if (i < paramCount - 1)
 					sb.append(", ");
 			}
 			sb.append("]");
@@ -0,0 +1,77 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+// Append-only log of the command lines applied since the last snapshot. Each
+// record is the command's index in the input, the line's length and its UTF-8
+// bytes. Records are flushed as they are appended, so a crash loses at most the
+// one being written, and a torn record at the end is ignored when reading.
+public class CommandJournal implements Closeable {
+	// Longer than any command; a larger length can only come from a torn record
+	private static final int MAX_LINE = 1 << 20;
+
+	private File file;
+	private DataOutputStream out;
+
+	public CommandJournal(File file) throws IOException {
+		this.file = file;
+		this.out = open(true);
+	}
+
+	// ====== External functions of Command Journal ======
+
+	public void append(long index, String line) throws IOException {
+		byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+		this.out.writeLong(index);
+		this.out.writeInt(bytes.length);
+		this.out.write(bytes);
+		this.out.flush();
+	}
+
+	// Drops every record, once a snapshot covers them
+	public void truncate() throws IOException {
+		this.out.close();
+		this.out = open(false);
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.out.close();
+	}
+
+	// The lines of consecutive records starting at index firstIndex. Older records,
+	// left behind when a snapshot was written but the journal not yet truncated,
+	// are skipped.
+	public static ArrayList<String> read(File file, long firstIndex) throws IOException {
+		ArrayList<String> lines = new ArrayList<>();
+		if (!file.exists())
+			return lines;
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			long expected = firstIndex;
+			while (true) {
+				long index = in.readLong();
+				int length = in.readInt();
+				if (length < 0 || length > MAX_LINE)
+					break;
+				byte[] bytes = new byte[length];
+				in.readFully(bytes);
+				if (index < expected)
+					continue;
+				if (index > expected)
+					break;
+				lines.add(new String(bytes, StandardCharsets.UTF_8));
+				expected++;
+			}
+		} catch (EOFException e) {
+			// A torn last record, or simply the end of the journal
+		}
+		return lines;
+	}
+
+	// ====== Internal functions of Command Journal ======
+
+	private DataOutputStream open(boolean append) throws IOException {
+		return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(this.file, append)));
+	}
+}
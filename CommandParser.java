@@ -1,120 +1,211 @@
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
-
 public class CommandParser {
 
-	// Based on the input given return appropriate CommandType
+	private static final int MAX_PARAMS = 5;
+
+	private CommandData command;
+	private int[] digitStarts;
+	private int[] digitEnds;
+	private int[] values;
+
+	public CommandParser() {
+		this.command = new CommandData(CommandType.UNKNOWN, new int[MAX_PARAMS], null);
+		this.digitStarts = new int[MAX_PARAMS];
+		this.digitEnds = new int[MAX_PARAMS];
+		this.values = new int[MAX_PARAMS];
+	}
+
+	// Based on the input given return appropriate CommandType. The returned holder
+	// is reused, so it is only valid until the next call.
 
 	public CommandData parse(String line) {
 		if (line == null || line.trim().isEmpty()) {
-			return new CommandData(CommandType.UNKNOWN, null, line);
+			this.command.reset(CommandType.UNKNOWN, 0, line);
+			return this.command;
 		}
 		line = line.trim();
+		decode(line, 0, line.length(), line, this.command);
+		return this.command;
+	}
+
+	// Decodes an already trimmed, non-empty line held in text[start, end). The raw
+	// command string is only built if someone asks the holder for it.
+	public void decode(CharSequence text, int start, int end, CommandData command) {
+		decode(text, start, end, null, command);
+		if (command.getRawCommand() == null) {
+			command.setRawSource(text, start, end);
+		}
+	}
+
+	// ================== Internal functions of Command Parser====================
+
+	private void decode(CharSequence text, int start, int end, String rawCommand, CommandData command) {
 		try {
-			if (line.startsWith("Initialize")) {
-				Pattern pattern = Pattern.compile("Initialize\\((\\d+)\\)");
-				Matcher matcher = pattern.matcher(line);
-				if (matcher.find()) {
-					int runwayCount = Integer.parseInt(matcher.group(1));
-					return new CommandData(CommandType.INITIALIZE, new int[] { runwayCount }, line);
-				}
-			}
+			switch (text.charAt(start)) {
+				case 'I':
+					if (matchCommand(text, start, end, "Initialize", 1)) {
+						fill(command, CommandType.INITIALIZE, 1, text, rawCommand);
+						return;
+					}
+					break;
 
-			else if (line.startsWith("SubmitFlight")) {
-				Pattern pattern = Pattern
-						.compile("SubmitFlight\\((\\d+),\\s*(\\d+),\\s*(\\d+),\\s*(\\d+),\\s*(\\d+)\\)");
-				Matcher matcher = pattern.matcher(line);
-				if (matcher.find()) {
-					int flightID = Integer.parseInt(matcher.group(1));
-					int airlineID = Integer.parseInt(matcher.group(2));
-					int submitTime = Integer.parseInt(matcher.group(3));
-					int priority = Integer.parseInt(matcher.group(4));
-					int duration = Integer.parseInt(matcher.group(5));
-					return new CommandData(CommandType.SUBMIT_FLIGHT,
-							new int[] { flightID, airlineID, submitTime, priority, duration }, line);
-				}
-			}
+				case 'S':
+					if (matchCommand(text, start, end, "SubmitFlight", 5)) {
+						fill(command, CommandType.SUBMIT_FLIGHT, 5, text, rawCommand);
+						return;
+					}
+					break;
 
-			else if (line.startsWith("CancelFlight")) {
-				Pattern pattern = Pattern.compile("CancelFlight\\((\\d+),\\s*(\\d+)\\)");
-				Matcher matcher = pattern.matcher(line);
-				if (matcher.find()) {
-					int flightID = Integer.parseInt(matcher.group(1));
-					int currentTime = Integer.parseInt(matcher.group(2));
-					return new CommandData(CommandType.CANCEL_FLIGHT,
-							new int[] { flightID, currentTime }, line);
-				}
-			}
+				case 'C':
+					if (matchCommand(text, start, end, "CancelFlight", 2)) {
+						fill(command, CommandType.CANCEL_FLIGHT, 2, text, rawCommand);
+						return;
+					}
+					break;
 
-			else if (line.startsWith("Reprioritize")) {
-				Pattern pattern = Pattern.compile("Reprioritize\\((\\d+),\\s*(\\d+),\\s*(\\d+)\\)");
-				Matcher matcher = pattern.matcher(line);
-				if (matcher.find()) {
-					int flightID = Integer.parseInt(matcher.group(1));
-					int currentTime = Integer.parseInt(matcher.group(2));
-					int newPriority = Integer.parseInt(matcher.group(3));
-					return new CommandData(CommandType.REPRIORITIZE,
-							new int[] { flightID, currentTime, newPriority }, line);
-				}
-			}
+				case 'R':
+					if (matchCommand(text, start, end, "Reprioritize", 3)) {
+						fill(command, CommandType.REPRIORITIZE, 3, text, rawCommand);
+						return;
+					}
+					break;
 
-			else if (line.startsWith("AddRunways")) {
-				Pattern pattern = Pattern.compile("AddRunways\\((\\d+),\\s*(\\d+)\\)");
-				Matcher matcher = pattern.matcher(line);
-				if (matcher.find()) {
-					int count = Integer.parseInt(matcher.group(1));
-					int currentTime = Integer.parseInt(matcher.group(2));
-					return new CommandData(CommandType.ADD_RUNWAYS,
-							new int[] { count, currentTime }, line);
-				}
-			}
+				case 'A':
+					if (matchCommand(text, start, end, "AddRunways", 2)) {
+						fill(command, CommandType.ADD_RUNWAYS, 2, text, rawCommand);
+						return;
+					}
+					break;
 
-			else if (line.startsWith("GroundHold")) {
-				Pattern pattern = Pattern.compile("GroundHold\\((\\d+),\\s*(\\d+),\\s*(\\d+)\\)");
-				Matcher matcher = pattern.matcher(line);
-				if (matcher.find()) {
-					int airlineLow = Integer.parseInt(matcher.group(1));
-					int airlineHigh = Integer.parseInt(matcher.group(2));
-					int currentTime = Integer.parseInt(matcher.group(3));
-					return new CommandData(CommandType.GROUND_HOLD,
-							new int[] { airlineLow, airlineHigh, currentTime }, line);
-				}
+				case 'G':
+					if (matchCommand(text, start, end, "GroundHold", 3)) {
+						fill(command, CommandType.GROUND_HOLD, 3, text, rawCommand);
+						return;
+					}
+					break;
+
+				case 'P':
+					if (startsWith(text, start, end, "PrintActive")) {
+						command.reset(CommandType.PRINT_ACTIVE, 0, rawCommand);
+						return;
+					}
+					if (matchCommand(text, start, end, "PrintSchedule", 2)) {
+						fill(command, CommandType.PRINT_SCHEDULE, 2, text, rawCommand);
+						return;
+					}
+					break;
+
+				case 'T':
+					if (matchCommand(text, start, end, "Tick", 1)) {
+						fill(command, CommandType.TICK, 1, text, rawCommand);
+						return;
+					}
+					break;
+
+				case 'Q':
+					if (startsWith(text, start, end, "Quit")) {
+						command.reset(CommandType.QUIT, 0, rawCommand);
+						return;
+					}
+					break;
+
+				default:
+					break;
 			}
 
-			else if (line.startsWith("PrintActive")) {
-				return new CommandData(CommandType.PRINT_ACTIVE, null, line);
+		} catch (NumberFormatException e) {
+			rawCommand = rawCommand != null ? rawCommand : text.subSequence(start, end).toString();
+			System.err.println("Error parsing command: " + rawCommand);
+			System.err.println("Error: " + e.getMessage());
+		}
+
+		command.reset(CommandType.UNKNOWN, 0, rawCommand);
+	}
+
+	// Mirrors a regex find of Name\((\d+)(,\s*(\d+))*\): the line must start with the
+	// name, and the first occurrence of the name that is followed by a well formed
+	// argument list wins
+	private boolean matchCommand(CharSequence text, int start, int end, String name, int paramCount) {
+		if (!startsWith(text, start, end, name))
+			return false;
+
+		for (int at = start; at <= end - name.length(); at++) {
+			if (startsWith(text, at, end, name) && matchArguments(text, at + name.length(), end, paramCount)) {
+				return true;
 			}
+		}
+		return false;
+	}
+
+	private boolean matchArguments(CharSequence text, int i, int end, int paramCount) {
+		if (i >= end || text.charAt(i) != '(')
+			return false;
+		i++;
 
-			else if (line.startsWith("PrintSchedule")) {
-				Pattern pattern = Pattern.compile("PrintSchedule\\((\\d+),\\s*(\\d+)\\)");
-				Matcher matcher = pattern.matcher(line);
-				if (matcher.find()) {
-					int time1 = Integer.parseInt(matcher.group(1));
-					int time2 = Integer.parseInt(matcher.group(2));
-					return new CommandData(CommandType.PRINT_SCHEDULE,
-							new int[] { time1, time2 }, line);
+		for (int k = 0; k < paramCount; k++) {
+			if (k > 0) {
+				if (i >= end || text.charAt(i) != ',')
+					return false;
+				i++;
+				while (i < end && isSpace(text.charAt(i))) {
+					i++;
 				}
 			}
 
-			else if (line.startsWith("Tick")) {
-				Pattern pattern = Pattern.compile("Tick\\((\\d+)\\)");
-				Matcher matcher = pattern.matcher(line);
-				if (matcher.find()) {
-					int time = Integer.parseInt(matcher.group(1));
-					return new CommandData(CommandType.TICK, new int[] { time }, line);
-				}
+			int digitsStart = i;
+			while (i < end && isDigit(text.charAt(i))) {
+				i++;
 			}
+			if (i == digitsStart)
+				return false;
 
-			else if (line.startsWith("Quit")) {
-				return new CommandData(CommandType.QUIT, null, line);
+			this.digitStarts[k] = digitsStart;
+			this.digitEnds[k] = i;
+		}
+
+		return i < end && text.charAt(i) == ')';
+	}
+
+	private void fill(CommandData command, CommandType type, int paramCount, CharSequence text, String rawCommand) {
+		// Converting first so an overflowing argument leaves the holder untouched
+		for (int k = 0; k < paramCount; k++) {
+			this.values[k] = toInt(text, k);
+		}
+
+		command.reset(type, paramCount, rawCommand);
+		for (int k = 0; k < paramCount; k++) {
+			command.setParam(k, this.values[k]);
+		}
+	}
+
+	private int toInt(CharSequence text, int k) {
+		long value = 0;
+		for (int i = this.digitStarts[k]; i < this.digitEnds[k]; i++) {
+			value = value * 10 + (text.charAt(i) - '0');
+			if (value > Integer.MAX_VALUE) {
+				// Same exception and message as the regex parser's Integer.parseInt
+				return Integer.parseInt(text.subSequence(this.digitStarts[k], this.digitEnds[k]).toString());
 			}
+		}
+		return (int) value;
+	}
 
-		} catch (Exception e) {
-			System.err.println("Error parsing command: " + line);
-			System.err.println("Error: " + e.getMessage());
+	private boolean startsWith(CharSequence text, int at, int end, String prefix) {
+		if (end - at < prefix.length())
+			return false;
+		for (int i = 0; i < prefix.length(); i++) {
+			if (text.charAt(at + i) != prefix.charAt(i))
+				return false;
 		}
+		return true;
+	}
+
+	private boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
 
-		return new CommandData(CommandType.UNKNOWN, null, line);
+	// Same set as the regex \s class
+	private boolean isSpace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
 	}
 
 }
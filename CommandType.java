@@ -1,13 +1,30 @@
 public enum CommandType {
-	INITIALIZE,
-	SUBMIT_FLIGHT,
-	CANCEL_FLIGHT,
-	REPRIORITIZE,
-	ADD_RUNWAYS,
-	GROUND_HOLD,
-	PRINT_ACTIVE,
-	PRINT_SCHEDULE,
-	TICK,
-	QUIT,
-	UNKNOWN
+	INITIALIZE("Initialize", 1),
+	SUBMIT_FLIGHT("SubmitFlight", 5),
+	CANCEL_FLIGHT("CancelFlight", 2),
+	REPRIORITIZE("Reprioritize", 3),
+	ADD_RUNWAYS("AddRunways", 2),
+	GROUND_HOLD("GroundHold", 3),
+	PRINT_ACTIVE("PrintActive", 0),
+	PRINT_SCHEDULE("PrintSchedule", 2),
+	TICK("Tick", 1),
+	QUIT("Quit", 0),
+	UNKNOWN(null, 0);
+
+	private String commandName;
+	private int paramCount;
+
+	private CommandType(String commandName, int paramCount) {
+		this.commandName = commandName;
+		this.paramCount = paramCount;
+	}
+
+	// Name as written in the input, or null for UNKNOWN
+	public String getCommandName() {
+		return this.commandName;
+	}
+
+	public int getParamCount() {
+		return this.paramCount;
+	}
 }
@@ -0,0 +1,152 @@
+import java.util.Arrays;
+
+// Indexed 4-ary max heap of flight slots, ordered like the pairing heap. A wider
+// node halves the depth of a binary heap and keeps a node's children on one or two
+// cache lines. positions[slot] is the slot's index in heap, or -1.
+public class DaryHeap implements PendingQueue {
+	private static final int ARITY = 4;
+
+	private FlightStore store;
+	private int[] heap;
+	private int[] positions;
+	private int size;
+
+	public DaryHeap(FlightStore store) {
+		this.store = store;
+		this.heap = new int[64];
+		this.positions = new int[64];
+		this.size = 0;
+		Arrays.fill(this.positions, -1);
+	}
+
+	// ================== External functions of Dary Heap====================
+
+	@Override
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public boolean contains(int slot) {
+		return slot < this.positions.length && this.positions[slot] != -1;
+	}
+
+	@Override
+	public void push(int slot) {
+		if (this.size == this.heap.length) {
+			this.heap = Arrays.copyOf(this.heap, this.size * 2);
+		}
+		if (slot >= this.positions.length) {
+			int oldLength = this.positions.length;
+			this.positions = Arrays.copyOf(this.positions, Math.max(oldLength * 2, slot + 1));
+			Arrays.fill(this.positions, oldLength, this.positions.length, -1);
+		}
+		siftUp(this.size++, slot);
+	}
+
+	@Override
+	public int pop() {
+		if (this.size == 0)
+			return -1;
+
+		int top = this.heap[0];
+		removeAt(0);
+		return top;
+	}
+
+	@Override
+	public void increaseKey(int slot, int newPriority) {
+		if (!contains(slot))
+			return;
+		this.store.setPriority(slot, newPriority);
+		siftUp(this.positions[slot], slot);
+	}
+
+	@Override
+	public void decreaseKey(int slot, int newPriority) {
+		if (!contains(slot))
+			return;
+		this.store.setPriority(slot, newPriority);
+		siftDown(this.positions[slot], slot);
+	}
+
+	@Override
+	public void erase(int slot) {
+		if (!contains(slot))
+			return;
+		removeAt(this.positions[slot]);
+	}
+
+	// ================== Internal functions of Dary Heap====================
+
+	// Negative if slot1 comes out of the heap before slot2
+	private int compare(int slot1, int slot2) {
+		if (this.store.getPriority(slot1) != this.store.getPriority(slot2)) {
+			return Integer.compare(this.store.getPriority(slot2), this.store.getPriority(slot1));
+		}
+		if (this.store.getSubmitTime(slot1) != this.store.getSubmitTime(slot2)) {
+			return Integer.compare(this.store.getSubmitTime(slot1), this.store.getSubmitTime(slot2));
+		}
+		return Integer.compare(this.store.getFlightID(slot1), this.store.getFlightID(slot2));
+	}
+
+	private void removeAt(int index) {
+		int slot = this.heap[index];
+		this.positions[slot] = -1;
+		int last = this.heap[--this.size];
+		if (index == this.size)
+			return;
+
+		// The last entry fills the hole and moves whichever way it belongs
+		if (index > 0 && compare(last, this.heap[(index - 1) / ARITY]) < 0) {
+			siftUp(index, last);
+		} else {
+			siftDown(index, last);
+		}
+	}
+
+	// Moves the hole at index up until slot fits there
+	private void siftUp(int index, int slot) {
+		while (index > 0) {
+			int parentIndex = (index - 1) / ARITY;
+			int parent = this.heap[parentIndex];
+			if (compare(slot, parent) >= 0)
+				break;
+			this.heap[index] = parent;
+			this.positions[parent] = index;
+			index = parentIndex;
+		}
+		this.heap[index] = slot;
+		this.positions[slot] = index;
+	}
+
+	// Moves the hole at index down until slot fits there
+	private void siftDown(int index, int slot) {
+		while (true) {
+			int firstChild = index * ARITY + 1;
+			if (firstChild >= this.size)
+				break;
+
+			int best = firstChild;
+			int end = Math.min(firstChild + ARITY, this.size);
+			for (int i = firstChild + 1; i < end; i++) {
+				if (compare(this.heap[i], this.heap[best]) < 0) {
+					best = i;
+				}
+			}
+			if (compare(this.heap[best], slot) >= 0)
+				break;
+
+			this.heap[index] = this.heap[best];
+			this.positions[this.heap[index]] = index;
+			index = best;
+		}
+		this.heap[index] = slot;
+		this.positions[slot] = index;
+	}
+}
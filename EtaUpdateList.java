@@ -0,0 +1,47 @@
+import java.util.Arrays;
+
+public class EtaUpdateList {
+	// Each update is packed as flightID in the high and ETA in the low 32 bits, so
+	// sorting the longs sorts the updates by flightID
+	private long[] updates;
+	private int size;
+
+	public EtaUpdateList() {
+		this.updates = new long[16];
+		this.size = 0;
+	}
+
+	// ================== External functions of ETA Update List====================
+
+	public void add(int flightID, int newEndTime) {
+		if (this.size == this.updates.length) {
+			this.updates = Arrays.copyOf(this.updates, this.size * 2);
+		}
+		this.updates[this.size++] = ((long) flightID << 32) | (newEndTime & 0xffffffffL);
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	public void clear() {
+		this.size = 0;
+	}
+
+	public void sortByFlightID() {
+		Arrays.sort(this.updates, 0, this.size);
+	}
+
+	public int getFlightID(int index) {
+		return (int) (this.updates[index] >> 32);
+	}
+
+	public int getEndTime(int index) {
+		return (int) this.updates[index];
+	}
+
+}
@@ -0,0 +1,276 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+// Holds every flight's fields in parallel primitive arrays. A flight is referred to
+// by its slot, an index into those arrays; slots of removed flights are recycled
+// through a free list. Active flights are found by flightID through an int map.
+public class FlightStore {
+	private static final StatusType[] STATES = StatusType.values();
+	private static final int NO_SLOT = -1;
+
+	private IntHashMap slotsByID;
+	private int[] flightIDs;
+	private int[] airlineIDs;
+	private int[] submitTimes;
+	private int[] priorities;
+	private int[] durations;
+	private int[] startTimes;
+	private int[] endTimes;
+	private int[] runwayIDs;
+	private byte[] states;
+	private int[] nextFree;
+	private int[] sequences;
+	private int freeHead;
+	private int used;
+	private int nextSequence;
+
+	// Capacity and resize threshold the HashMap of active flights used to have
+	private int legacyCapacity;
+	private int legacyThreshold;
+
+	public FlightStore() {
+		this(64);
+	}
+
+	public FlightStore(int initialCapacity) {
+		this.slotsByID = new IntHashMap(initialCapacity);
+		this.flightIDs = new int[initialCapacity];
+		this.airlineIDs = new int[initialCapacity];
+		this.submitTimes = new int[initialCapacity];
+		this.priorities = new int[initialCapacity];
+		this.durations = new int[initialCapacity];
+		this.startTimes = new int[initialCapacity];
+		this.endTimes = new int[initialCapacity];
+		this.runwayIDs = new int[initialCapacity];
+		this.states = new byte[initialCapacity];
+		this.nextFree = new int[initialCapacity];
+		this.sequences = new int[initialCapacity];
+		this.freeHead = NO_SLOT;
+		this.used = 0;
+		this.nextSequence = 0;
+		this.legacyCapacity = 16;
+		this.legacyThreshold = 12;
+	}
+
+	// ================== External functions of Flight Store====================
+
+	// Adds an active flight and returns its slot
+	public int add(int flightID, int airlineID, int submitTime, int priority, int duration) {
+		int slot = allocate();
+		this.flightIDs[slot] = flightID;
+		this.airlineIDs[slot] = airlineID;
+		this.submitTimes[slot] = submitTime;
+		this.priorities[slot] = priority;
+		this.durations[slot] = duration;
+		this.startTimes[slot] = -1;
+		this.endTimes[slot] = -1;
+		this.runwayIDs[slot] = -1;
+		this.states[slot] = (byte) StatusType.PENDING.ordinal();
+		this.sequences[slot] = this.nextSequence++;
+		this.slotsByID.put(flightID, slot);
+
+		if (this.slotsByID.size() > this.legacyThreshold) {
+			this.legacyCapacity <<= 1;
+			this.legacyThreshold <<= 1;
+		}
+		return slot;
+	}
+
+	// A blank slot that cannot be found by flightID, e.g. to hold search keys
+	public int allocate() {
+		int slot;
+		if (this.freeHead != NO_SLOT) {
+			slot = this.freeHead;
+			this.freeHead = this.nextFree[slot];
+		} else {
+			if (this.used == this.flightIDs.length) {
+				grow();
+			}
+			slot = this.used++;
+		}
+		this.nextFree[slot] = NO_SLOT;
+		return slot;
+	}
+
+	// Returns the slot of the active flight with this ID, or -1
+	public int find(int flightID) {
+		return this.slotsByID.get(flightID);
+	}
+
+	public boolean isActive(int slot) {
+		return this.slotsByID.get(this.flightIDs[slot]) == slot;
+	}
+
+	// The flight is no longer active; its fields stay readable until release
+	public void deactivate(int slot) {
+		if (isActive(slot)) {
+			this.slotsByID.remove(this.flightIDs[slot]);
+		}
+	}
+
+	public void release(int slot) {
+		this.nextFree[slot] = this.freeHead;
+		this.freeHead = slot;
+	}
+
+	public int activeCount() {
+		return this.slotsByID.size();
+	}
+
+	// Slots are always below this bound
+	public int capacity() {
+		return this.flightIDs.length;
+	}
+
+	// Position of an active flight in the iteration order of the HashMap the
+	// scheduler used to keep active flights in: bucket first, then insertion order
+	public long legacyOrder(int slot) {
+		int hash = this.flightIDs[slot] ^ (this.flightIDs[slot] >>> 16);
+		return ((long) (hash & (this.legacyCapacity - 1)) << 32) | this.sequences[slot];
+	}
+
+	public int getFlightID(int slot) {
+		return this.flightIDs[slot];
+	}
+
+	public int getAirlineID(int slot) {
+		return this.airlineIDs[slot];
+	}
+
+	public int getSubmitTime(int slot) {
+		return this.submitTimes[slot];
+	}
+
+	public int getPriority(int slot) {
+		return this.priorities[slot];
+	}
+
+	public int getDuration(int slot) {
+		return this.durations[slot];
+	}
+
+	public int getStartTime(int slot) {
+		return this.startTimes[slot];
+	}
+
+	public int getEndTime(int slot) {
+		return this.endTimes[slot];
+	}
+
+	public int getRunwayID(int slot) {
+		return this.runwayIDs[slot];
+	}
+
+	public StatusType getState(int slot) {
+		return STATES[this.states[slot]];
+	}
+
+	public void setFlightID(int slot, int flightID) {
+		this.flightIDs[slot] = flightID;
+	}
+
+	public void setAirlineID(int slot, int airlineID) {
+		this.airlineIDs[slot] = airlineID;
+	}
+
+	public void setPriority(int slot, int priority) {
+		this.priorities[slot] = priority;
+	}
+
+	public void setStartTime(int slot, int startTime) {
+		this.startTimes[slot] = startTime;
+	}
+
+	public void setEndTime(int slot, int endTime) {
+		this.endTimes[slot] = endTime;
+	}
+
+	public void setRunwayID(int slot, int runwayID) {
+		this.runwayIDs[slot] = runwayID;
+	}
+
+	public void setState(int slot, StatusType state) {
+		this.states[slot] = (byte) state.ordinal();
+	}
+
+	// Writes every slot, free or not, so a restored store hands out the same slots
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeInt(this.used);
+		out.writeInt(this.freeHead);
+		out.writeInt(this.nextSequence);
+		out.writeInt(this.legacyCapacity);
+		out.writeInt(this.legacyThreshold);
+		for (int slot = 0; slot < this.used; slot++) {
+			out.writeInt(this.flightIDs[slot]);
+			out.writeInt(this.airlineIDs[slot]);
+			out.writeInt(this.submitTimes[slot]);
+			out.writeInt(this.priorities[slot]);
+			out.writeInt(this.durations[slot]);
+			out.writeInt(this.startTimes[slot]);
+			out.writeInt(this.endTimes[slot]);
+			out.writeInt(this.runwayIDs[slot]);
+			out.writeByte(this.states[slot]);
+			out.writeInt(this.nextFree[slot]);
+			out.writeInt(this.sequences[slot]);
+		}
+
+		out.writeInt(activeCount());
+		for (int slot = 0; slot < this.used; slot++) {
+			if (isActive(slot)) {
+				out.writeInt(slot);
+			}
+		}
+	}
+
+	// Replaces the whole contents with what writeTo wrote
+	public void readFrom(DataInput in) throws IOException {
+		int used = in.readInt();
+		while (this.flightIDs.length < used) {
+			grow();
+		}
+		this.used = used;
+		this.freeHead = in.readInt();
+		this.nextSequence = in.readInt();
+		this.legacyCapacity = in.readInt();
+		this.legacyThreshold = in.readInt();
+		for (int slot = 0; slot < used; slot++) {
+			this.flightIDs[slot] = in.readInt();
+			this.airlineIDs[slot] = in.readInt();
+			this.submitTimes[slot] = in.readInt();
+			this.priorities[slot] = in.readInt();
+			this.durations[slot] = in.readInt();
+			this.startTimes[slot] = in.readInt();
+			this.endTimes[slot] = in.readInt();
+			this.runwayIDs[slot] = in.readInt();
+			this.states[slot] = in.readByte();
+			this.nextFree[slot] = in.readInt();
+			this.sequences[slot] = in.readInt();
+		}
+
+		int activeCount = in.readInt();
+		this.slotsByID = new IntHashMap(Math.max(16, activeCount));
+		for (int i = 0; i < activeCount; i++) {
+			int slot = in.readInt();
+			this.slotsByID.put(this.flightIDs[slot], slot);
+		}
+	}
+
+	// ================== Internal functions of Flight Store====================
+
+	private void grow() {
+		int capacity = this.flightIDs.length * 2;
+		this.flightIDs = Arrays.copyOf(this.flightIDs, capacity);
+		this.airlineIDs = Arrays.copyOf(this.airlineIDs, capacity);
+		this.submitTimes = Arrays.copyOf(this.submitTimes, capacity);
+		this.priorities = Arrays.copyOf(this.priorities, capacity);
+		this.durations = Arrays.copyOf(this.durations, capacity);
+		this.startTimes = Arrays.copyOf(this.startTimes, capacity);
+		this.endTimes = Arrays.copyOf(this.endTimes, capacity);
+		this.runwayIDs = Arrays.copyOf(this.runwayIDs, capacity);
+		this.states = Arrays.copyOf(this.states, capacity);
+		this.nextFree = Arrays.copyOf(this.nextFree, capacity);
+		this.sequences = Arrays.copyOf(this.sequences, capacity);
+	}
+}
@@ -0,0 +1,125 @@
+
+import java.util.Arrays;
+
+public class IntHashMap {
+	private static final int MISSING = -1;
+
+	private int[] keys;
+	private int[] values;
+	private boolean[] occupied;
+	private int size;
+	private int mask;
+
+	public IntHashMap() {
+		this(16);
+	}
+
+	public IntHashMap(int expectedSize) {
+		int capacity = 16;
+		while (capacity < expectedSize * 2) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	// ================== External functions of Int Hash Map====================
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean containsKey(int key) {
+		return this.occupied[find(key)];
+	}
+
+	// Returns -1 when the key is absent, so values are expected to be non-negative
+	public int get(int key) {
+		int slot = find(key);
+		return this.occupied[slot] ? this.values[slot] : MISSING;
+	}
+
+	public void put(int key, int value) {
+		int slot = find(key);
+		if (!this.occupied[slot]) {
+			this.occupied[slot] = true;
+			this.keys[slot] = key;
+			this.size++;
+		}
+		this.values[slot] = value;
+
+		if (this.size * 2 > this.keys.length) {
+			resize(this.keys.length << 1);
+		}
+	}
+
+	public int remove(int key) {
+		int slot = find(key);
+		if (!this.occupied[slot])
+			return MISSING;
+
+		int value = this.values[slot];
+		this.occupied[slot] = false;
+		this.size--;
+
+		// Shift the rest of the probe run back so lookups never stop early
+		int next = (slot + 1) & this.mask;
+		while (this.occupied[next]) {
+			int home = hash(this.keys[next]);
+			if (((next - home) & this.mask) >= ((next - slot) & this.mask)) {
+				this.keys[slot] = this.keys[next];
+				this.values[slot] = this.values[next];
+				this.occupied[slot] = true;
+				this.occupied[next] = false;
+				slot = next;
+			}
+			next = (next + 1) & this.mask;
+		}
+		return value;
+	}
+
+	public void clear() {
+		Arrays.fill(this.occupied, false);
+		this.size = 0;
+	}
+
+	// ================== Internal functions of Int Hash Map====================
+
+	private int find(int key) {
+		int slot = hash(key);
+		while (this.occupied[slot] && this.keys[slot] != key) {
+			slot = (slot + 1) & this.mask;
+		}
+		return slot;
+	}
+
+	private int hash(int key) {
+		int h = key * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & this.mask;
+	}
+
+	private void allocate(int capacity) {
+		this.keys = new int[capacity];
+		this.values = new int[capacity];
+		this.occupied = new boolean[capacity];
+		this.mask = capacity - 1;
+		this.size = 0;
+	}
+
+	private void resize(int capacity) {
+		int[] oldKeys = this.keys;
+		int[] oldValues = this.values;
+		boolean[] oldOccupied = this.occupied;
+
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldOccupied[i]) {
+				int slot = find(oldKeys[i]);
+				this.occupied[slot] = true;
+				this.keys[slot] = oldKeys[i];
+				this.values[slot] = oldValues[i];
+				this.size++;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,94 @@
+import java.util.Arrays;
+
+// Fixed-size histogram of non-negative long values, e.g. nanoseconds. Every
+// power of two is split into SUB_BUCKETS equal buckets, so a recorded value is
+// off by at most an eighth, and the whole long range fits in BUCKETS counters.
+// Recording is a few shifts and an array increment.
+public class LatencyHistogram {
+	private static final int SUB_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+	private long[] counts;
+	private long totalCount;
+	private long totalValue;
+	private long maxValue;
+
+	public LatencyHistogram() {
+		this.counts = new long[BUCKETS];
+		this.totalCount = 0;
+		this.totalValue = 0;
+		this.maxValue = 0;
+	}
+
+	// ================== External functions of Latency Histogram====================
+
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		this.counts[bucketOf(value)]++;
+		this.totalCount++;
+		this.totalValue += value;
+		if (value > this.maxValue) {
+			this.maxValue = value;
+		}
+	}
+
+	public long getCount() {
+		return this.totalCount;
+	}
+
+	public long getMax() {
+		return this.maxValue;
+	}
+
+	public double getMean() {
+		return this.totalCount == 0 ? 0 : (double) this.totalValue / this.totalCount;
+	}
+
+	// Upper edge of the bucket holding the given fraction of values, capped at
+	// the largest value recorded
+	public long getPercentile(double fraction) {
+		if (this.totalCount == 0)
+			return 0;
+
+		long rank = Math.max(1, (long) Math.ceil(fraction * this.totalCount));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += this.counts[i];
+			if (seen >= rank) {
+				return Math.min(this.maxValue, upperEdge(i));
+			}
+		}
+		return this.maxValue;
+	}
+
+	public void clear() {
+		Arrays.fill(this.counts, 0);
+		this.totalCount = 0;
+		this.totalValue = 0;
+		this.maxValue = 0;
+	}
+
+	// ================== Internal functions of Latency Histogram====================
+
+	// Values below SUB_BUCKETS get a bucket each; above that, the bucket is the
+	// power of two plus the next SUB_BITS bits
+	private static int bucketOf(long value) {
+		if (value < SUB_BUCKETS)
+			return (int) value;
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+	}
+
+	private static long upperEdge(int bucket) {
+		if (bucket < SUB_BUCKETS)
+			return bucket;
+		int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+		long sub = bucket % SUB_BUCKETS;
+		long lower = (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+		return lower + (1L << (exponent - SUB_BITS)) - 1;
+	}
+}
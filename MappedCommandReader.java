@@ -0,0 +1,130 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public class MappedCommandReader implements Closeable {
+	// Upper bound of one mapping; a larger file is mapped window by window
+	private static final long MAX_WINDOW = Integer.MAX_VALUE;
+
+	private FileChannel channel;
+	private long fileSize;
+	private long windowStart;
+	private MappedByteBuffer window;
+	private int windowLimit;
+	private int position;
+	private ByteSlice line;
+	private CommandParser parser;
+
+	public MappedCommandReader(String inputFile) throws IOException {
+		this.channel = FileChannel.open(Paths.get(inputFile), StandardOpenOption.READ);
+		this.fileSize = this.channel.size();
+		this.windowStart = 0;
+		this.window = null;
+		this.windowLimit = 0;
+		this.position = 0;
+		this.line = new ByteSlice();
+		this.parser = new CommandParser();
+	}
+
+	// ================== External functions of Mapped Command Reader====================
+
+	// Decodes the next command into the holder, skipping blank lines and // comments
+	// the same way the line reader does. Returns false at the end of the file.
+	public boolean next(CommandData command) throws IOException {
+		while (true) {
+			if (this.position >= this.windowLimit && !mapNextWindow()) {
+				return false;
+			}
+
+			// Both \r and \n end a line; the empty line between \r\n is skipped below
+			int start = this.position;
+			int end = start;
+			while (end < this.windowLimit && !isLineBreak(this.window.get(end))) {
+				end++;
+			}
+			this.position = end + 1;
+
+			// Trimming the same characters as String.trim
+			while (start < end && (this.window.get(start) & 0xff) <= ' ') {
+				start++;
+			}
+			while (end > start && (this.window.get(end - 1) & 0xff) <= ' ') {
+				end--;
+			}
+			if (start == end || (end - start >= 2 && this.window.get(start) == '/' && this.window.get(start + 1) == '/')) {
+				continue;
+			}
+
+			this.parser.decode(this.line, start, end, command);
+			return true;
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.channel.close();
+	}
+
+	// ================== Internal functions of Mapped Command Reader====================
+
+	// Maps the next window so that it ends on a line break, keeping every line
+	// inside a single mapping
+	private boolean mapNextWindow() throws IOException {
+		long start = this.windowStart + this.windowLimit;
+		if (start >= this.fileSize) {
+			return false;
+		}
+
+		long size = Math.min(MAX_WINDOW, this.fileSize - start);
+		MappedByteBuffer mapped = this.channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+		int limit = (int) size;
+		if (start + size < this.fileSize) {
+			int lastBreak = limit - 1;
+			while (lastBreak >= 0 && !isLineBreak(mapped.get(lastBreak))) {
+				lastBreak--;
+			}
+			if (lastBreak >= 0) {
+				limit = lastBreak + 1;
+			}
+		}
+
+		this.windowStart = start;
+		this.window = mapped;
+		this.windowLimit = limit;
+		this.position = 0;
+		this.line.buffer = mapped;
+		return true;
+	}
+
+	private static boolean isLineBreak(byte b) {
+		return b == '\n' || b == '\r';
+	}
+
+	// Character view of the mapped bytes for the parser. Command names and digits
+	// are ASCII, so bytes map to chars one to one; only a materialized substring is
+	// decoded with the platform charset, as FileReader would.
+	private static class ByteSlice implements CharSequence {
+		private MappedByteBuffer buffer;
+
+		@Override
+		public int length() {
+			return this.buffer.limit();
+		}
+
+		@Override
+		public char charAt(int index) {
+			return (char) (this.buffer.get(index) & 0xff);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			byte[] bytes = new byte[end - start];
+			this.buffer.get(start, bytes);
+			return new String(bytes, Charset.defaultCharset());
+		}
+	}
+}
@@ -0,0 +1,261 @@
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Runs one scheduler per airport. Every input line starts with an airport key,
+// e.g. "JFK: Tick(5)". Airports are spread round-robin over a fixed set of shards
+// in the order they first appear, and each shard runs its airports' commands on
+// its own thread. Input is handled in rounds: while the shards work through one
+// round, the next one is read. Once a round is done its output is written in
+// input order, with every line prefixed by its airport key. A line one airport
+// left open, like the one Quit prints, is ended before another airport writes.
+public class MultiAirportRunner {
+	private static final int ROUND_SIZE = 1 << 14;
+	private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes();
+
+	private PendingQueueType queueType;
+	private Shard[] shards;
+	private HashMap<String, Airport> airports;
+	private ExecutorService executor;
+	private Airport lineOwner;
+
+	public MultiAirportRunner(int shardCount, PendingQueueType queueType) {
+		this.queueType = queueType;
+		this.shards = new Shard[shardCount];
+		for (int i = 0; i < shardCount; i++) {
+			this.shards[i] = new Shard();
+		}
+		this.airports = new HashMap<>();
+		this.lineOwner = null;
+	}
+
+	// ====== External functions of Multi Airport Runner ======
+
+	public void run(BufferedReader reader, OutputStream out) throws IOException {
+		this.executor = Executors.newFixedThreadPool(this.shards.length);
+		try {
+			Round[] rounds = { new Round(), new Round() };
+			int current = 0;
+			ArrayList<Future<?>> running = new ArrayList<>();
+
+			boolean more = readRound(reader, rounds[current], 0);
+			while (more || rounds[current].size > 0) {
+				Round round = rounds[current];
+				running.clear();
+				for (int i = 0; i < this.shards.length; i++) {
+					Shard shard = this.shards[i];
+					int side = current;
+					running.add(this.executor.submit(() -> shard.execute(side)));
+				}
+
+				// Read ahead while the shards are busy
+				Round next = rounds[1 - current];
+				more = more && readRound(reader, next, 1 - current);
+
+				for (Future<?> future : running) {
+					future.get();
+				}
+				writeRound(round, current, out);
+				round.size = 0;
+				current = 1 - current;
+			}
+			out.flush();
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while scheduling", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Shard failed: " + e.getCause(), e.getCause());
+		} finally {
+			this.executor.shutdownNow();
+		}
+	}
+
+	// ====== Internal functions of Multi Airport Runner ======
+
+	// Reads up to a round of commands and hands each to its airport's shard
+	private boolean readRound(BufferedReader reader, Round round, int side) throws IOException {
+		for (Shard shard : this.shards) {
+			shard.batches[side].clear();
+		}
+		round.size = 0;
+
+		String line;
+		while (round.size < ROUND_SIZE && (line = reader.readLine()) != null) {
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("//")) {
+				continue;
+			}
+
+			int colon = line.indexOf(':');
+			int paren = line.indexOf('(');
+			String key = null;
+			if (colon > 0 && (paren < 0 || colon < paren)) {
+				key = line.substring(0, colon).trim();
+				line = line.substring(colon + 1).trim();
+				// What follows the key is skipped just like a line on its own
+				if (line.isEmpty() || line.startsWith("//")) {
+					continue;
+				}
+			}
+			Airport airport = key == null ? null : airportFor(key);
+
+			if (airport == null) {
+				round.add(null, -1, line);
+			} else {
+				Batch batch = this.shards[airport.shard].batches[side];
+				round.add(airport, batch.size, line);
+				batch.add(airport, line);
+			}
+		}
+		return round.size == ROUND_SIZE;
+	}
+
+	private Airport airportFor(String key) {
+		Airport airport = this.airports.get(key);
+		if (airport == null) {
+			int shard = this.airports.size() % this.shards.length;
+			airport = new Airport(key, shard, this.shards[shard].output, this.queueType);
+			this.airports.put(key, airport);
+		}
+		return airport;
+	}
+
+	// Copies every command's output in input order, starting each line with the key
+	private void writeRound(Round round, int side, OutputStream out) throws IOException {
+		for (int i = 0; i < round.size; i++) {
+			Airport airport = round.airports[i];
+			if (airport == null) {
+				writeLine(out, "Missing airport key: " + round.lines[i]);
+				continue;
+			}
+
+			Batch batch = this.shards[airport.shard].batches[side];
+			int index = round.indexes[i];
+			int start = index == 0 ? 0 : batch.outputEnds[index - 1];
+			int end = batch.outputEnds[index];
+			byte[] bytes = batch.output;
+			if (start < end && this.lineOwner != null && this.lineOwner != airport) {
+				out.write(LINE_SEPARATOR);
+				this.lineOwner = null;
+			}
+			int from = start;
+			for (int j = start; j < end; j++) {
+				if (this.lineOwner == null) {
+					out.write(bytes, from, j - from);
+					from = j;
+					out.write(airport.prefix);
+					this.lineOwner = airport;
+				}
+				if (bytes[j] == '\n') {
+					this.lineOwner = null;
+				}
+			}
+			out.write(bytes, from, end - from);
+		}
+	}
+
+	private void writeLine(OutputStream out, String text) throws IOException {
+		if (this.lineOwner != null) {
+			out.write(LINE_SEPARATOR);
+		}
+		out.write(text.getBytes());
+		out.write(LINE_SEPARATOR);
+		this.lineOwner = null;
+	}
+
+	// One airport's scheduler. Its output goes to the shard's buffer, which the
+	// shard cuts into per-command pieces.
+	private static class Airport {
+		private byte[] prefix;
+		private int shard;
+		private Scheduler scheduler;
+		private OutputSink sink;
+
+		Airport(String key, int shard, ByteArrayOutputStream output, PendingQueueType queueType) {
+			this.prefix = (key + ": ").getBytes();
+			this.shard = shard;
+			this.sink = new OutputSink(output, 1 << 12);
+			this.scheduler = new Scheduler(this.sink, queueType);
+		}
+	}
+
+	// The commands of one round in input order, each with its place in its shard's batch
+	private static class Round {
+		private Airport[] airports;
+		private int[] indexes;
+		private String[] lines;
+		private int size;
+
+		Round() {
+			this.airports = new Airport[ROUND_SIZE];
+			this.indexes = new int[ROUND_SIZE];
+			this.lines = new String[ROUND_SIZE];
+			this.size = 0;
+		}
+
+		void add(Airport airport, int index, String line) {
+			this.airports[this.size] = airport;
+			this.indexes[this.size] = index;
+			this.lines[this.size] = line;
+			this.size++;
+		}
+	}
+
+	// A shard's commands for one round and, once it has run, their output
+	private static class Batch {
+		private Airport[] airports;
+		private String[] lines;
+		private int[] outputEnds;
+		private byte[] output;
+		private int size;
+
+		Batch() {
+			this.airports = new Airport[ROUND_SIZE];
+			this.lines = new String[ROUND_SIZE];
+			this.outputEnds = new int[ROUND_SIZE];
+			this.size = 0;
+		}
+
+		void add(Airport airport, String line) {
+			this.airports[this.size] = airport;
+			this.lines[this.size] = line;
+			this.size++;
+		}
+
+		void clear() {
+			this.size = 0;
+		}
+	}
+
+	// Runs a batch at a time; there are two so one can be filled while the other runs
+	private static class Shard {
+		private Batch[] batches;
+		private ByteArrayOutputStream output;
+		private CommandParser parser;
+
+		Shard() {
+			this.batches = new Batch[] { new Batch(), new Batch() };
+			this.output = new ByteArrayOutputStream(1 << 16);
+			this.parser = new CommandParser();
+		}
+
+		void execute(int side) {
+			Batch batch = this.batches[side];
+			this.output.reset();
+			for (int i = 0; i < batch.size; i++) {
+				Airport airport = batch.airports[i];
+				CommandData cmd = this.parser.parse(batch.lines[i]);
+				gatorAirTrafficScheduler.executeCommand(cmd, airport.scheduler, airport.sink);
+				airport.sink.flush();
+				batch.outputEnds[i] = this.output.size();
+			}
+			// The batch keeps the bytes, since the buffer is reused for the next round
+			batch.output = this.output.toByteArray();
+		}
+	}
+}
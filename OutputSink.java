@@ -0,0 +1,130 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+public class OutputSink implements AutoCloseable {
+	private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes();
+
+	private OutputStream out;
+	private byte[] buffer;
+	private int count;
+	private byte[] digits;
+	private boolean error;
+
+	public OutputSink(OutputStream out) {
+		this(out, 1 << 16);
+	}
+
+	public OutputSink(OutputStream out, int bufferSize) {
+		this.out = out;
+		this.buffer = new byte[bufferSize];
+		this.count = 0;
+		this.digits = new byte[20];
+		this.error = false;
+	}
+
+	// ================== External functions of Output Sink====================
+
+	public OutputSink print(String s) {
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c >= 0x80) {
+				// Anything beyond ASCII is encoded like a FileWriter would
+				write(s.substring(i).getBytes(Charset.defaultCharset()));
+				return this;
+			}
+			if (this.count == this.buffer.length) {
+				drain();
+			}
+			this.buffer[this.count++] = (byte) c;
+		}
+		return this;
+	}
+
+	// Writes the decimal digits straight into the buffer, without an
+	// intermediate String
+	public OutputSink print(int value) {
+		long v = value;
+		if (v < 0) {
+			print("-");
+			v = -v;
+		}
+
+		int length = 0;
+		do {
+			this.digits[length++] = (byte) ('0' + (v % 10));
+			v /= 10;
+		} while (v != 0);
+
+		if (this.count + length > this.buffer.length) {
+			drain();
+		}
+		while (length > 0) {
+			this.buffer[this.count++] = this.digits[--length];
+		}
+		return this;
+	}
+
+	public OutputSink println() {
+		return write(LINE_SEPARATOR);
+	}
+
+	public OutputSink println(String s) {
+		return print(s).println();
+	}
+
+	public void flush() {
+		drain();
+		try {
+			this.out.flush();
+		} catch (IOException e) {
+			this.error = true;
+		}
+	}
+
+	@Override
+	public void close() {
+		flush();
+		try {
+			this.out.close();
+		} catch (IOException e) {
+			this.error = true;
+		}
+	}
+
+	// Like PrintWriter, write failures are recorded instead of thrown
+	public boolean checkError() {
+		return this.error;
+	}
+
+	// ================== Internal functions of Output Sink====================
+
+	private OutputSink write(byte[] bytes) {
+		if (this.count + bytes.length > this.buffer.length) {
+			drain();
+		}
+		if (bytes.length > this.buffer.length) {
+			try {
+				this.out.write(bytes);
+			} catch (IOException e) {
+				this.error = true;
+			}
+			return this;
+		}
+		System.arraycopy(bytes, 0, this.buffer, this.count, bytes.length);
+		this.count += bytes.length;
+		return this;
+	}
+
+	private void drain() {
+		if (this.count == 0)
+			return;
+		try {
+			this.out.write(this.buffer, 0, this.count);
+		} catch (IOException e) {
+			this.error = true;
+		}
+		this.count = 0;
+	}
+
+}
@@ -1,135 +1,215 @@
-public class PairingHeap {
-	private PairingHeapNode root;
-
-	public PairingHeap() {
-		this.root = null;
+import java.util.Arrays;
+
+// Max pairing heap of flight slots, ordered by priority desc, submitTime asc,
+// flightID asc. The child, sibling and prev links live in int arrays indexed by
+// slot, so the node pool is recycled along with the flight store's slots and no
+// operation allocates. prev is the parent for a first child, otherwise the left sibling.
+public class PairingHeap implements PendingQueue {
+	private static final int NIL = -1;
+	private static final int UNLINKED = -2;
+
+	private FlightStore store;
+	private int root;
+	private int size;
+	private int[] child;
+	private int[] sibling;
+	private int[] prev;
+
+	public PairingHeap(FlightStore store) {
+		this.store = store;
+		this.root = NIL;
+		this.size = 0;
+		this.child = new int[64];
+		this.sibling = new int[64];
+		this.prev = new int[64];
+		Arrays.fill(this.prev, UNLINKED);
 	}
 
 	// ================== Public Functions of Pairing Heap====================
 
+	@Override
 	public boolean isEmpty() {
-		return this.root == null;
+		return this.root == NIL;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public boolean contains(int slot) {
+		return slot < this.prev.length && this.prev[slot] != UNLINKED;
 	}
 
-	public int compare(Flight flight1, Flight flight2) {
-		if (flight1.getPriority() != flight2.getPriority()) {
-			return Integer.compare(flight2.getPriority(), flight1.getPriority());
+	// Negative if slot1 comes out of the heap before slot2
+	public int compare(int slot1, int slot2) {
+		if (this.store.getPriority(slot1) != this.store.getPriority(slot2)) {
+			return Integer.compare(this.store.getPriority(slot2), this.store.getPriority(slot1));
 		}
-		if (flight1.getSubmitTime() != flight2.getSubmitTime()) {
-			return Integer.compare(flight2.getSubmitTime(), flight1.getSubmitTime());
+		if (this.store.getSubmitTime(slot1) != this.store.getSubmitTime(slot2)) {
+			return Integer.compare(this.store.getSubmitTime(slot1), this.store.getSubmitTime(slot2));
 		}
-		return Integer.compare(flight2.getFlightID(), flight1.getFlightID());
+		return Integer.compare(this.store.getFlightID(slot1), this.store.getFlightID(slot2));
 	}
 
-	public PairingHeapNode push(Flight flight) {
-		PairingHeapNode node = new PairingHeapNode(flight);
-		this.root = meld(this.root, node);
-		return node;
+	@Override
+	public void push(int slot) {
+		ensureCapacity(slot);
+		this.child[slot] = NIL;
+		this.sibling[slot] = NIL;
+		this.prev[slot] = NIL;
+		this.root = meld(this.root, slot);
+		this.size++;
 	}
 
-	public Flight pop() {
-		if (this.root == null)
-			return null;
-
-		Flight maxFlight = this.root.getFlight();
-		this.root = mergePairs(this.root.getChild());
-		if (this.root != null) {
-			this.root.setPrev(null);
-		}
-		return maxFlight;
+	// Returns the slot at the top of the heap, or -1 when it is empty
+	@Override
+	public int pop() {
+		if (this.root == NIL)
+			return -1;
+
+		int maxSlot = this.root;
+		this.root = mergePairs(this.child[maxSlot]);
+		this.prev[maxSlot] = UNLINKED;
+		this.size--;
+		return maxSlot;
 	}
 
-	public void increaseKey(PairingHeapNode node, int newPriority) {
-		if (node == null)
+	@Override
+	public void increaseKey(int slot, int newPriority) {
+		if (!contains(slot))
 			return;
-		node.getFlight().setPriority(newPriority);
+		this.store.setPriority(slot, newPriority);
 
-		if (node == this.root)
+		if (slot == this.root)
 			return;
 
-		if (node.getPrev() != null) {
-			if (node.getPrev().getChild() == node) {
-				node.getPrev().setChild(node.getSibling());
-			} else {
-				node.getPrev().setSibling(node.getSibling());
-			}
-		}
-		if (node.getSibling() != null) {
-			node.getSibling().setPrev(node.getPrev());
-		}
+		// The node can only move up, so its subtree stays valid and comes along
+		cut(slot);
+		this.root = meld(this.root, slot);
+	}
+
+	@Override
+	public void decreaseKey(int slot, int newPriority) {
+		if (!contains(slot))
+			return;
+		this.store.setPriority(slot, newPriority);
 
-		node.setSibling(null);
-		node.setPrev(null);
-		this.root = meld(this.root, node);
+		// Children may now outrank the node: the node goes back in on its own
+		int children = this.child[slot];
+		this.child[slot] = NIL;
+		if (slot == this.root) {
+			this.root = NIL;
+		} else {
+			cut(slot);
+		}
+		this.root = meld(meld(this.root, mergePairs(children)), slot);
 	}
 
-	public void erase(PairingHeapNode node) {
-		if (node == null)
+	@Override
+	public void erase(int slot) {
+		if (!contains(slot))
 			return;
 
-		if (node == this.root) {
+		if (slot == this.root) {
 			pop();
 			return;
 		}
 
-		if (node.getPrev() != null && node.getPrev().getChild() == node) {
-			node.getPrev().setChild(node.getSibling());
-		} else if (node.getPrev() != null && node.getPrev().getChild() != node) {
-			node.getPrev().setSibling(node.getSibling());
-		}
-		if (node.getSibling() != null) {
-			node.getSibling().setPrev(node.getPrev());
-		}
-
-		PairingHeapNode mergedChildren = mergePairs(node.getChild());
-		if (mergedChildren != null) {
-			this.root = meld(this.root, mergedChildren);
-		}
+		cut(slot);
+		this.root = meld(this.root, mergePairs(this.child[slot]));
+		this.prev[slot] = UNLINKED;
+		this.size--;
 	}
 
 	// ================== Internal functions of Pairing Heap====================
 
-	private PairingHeapNode meld(PairingHeapNode a, PairingHeapNode b) {
-		if (a == null)
+	// Links two roots; the winner keeps its place and takes the other as first child
+	private int meld(int a, int b) {
+		if (a == NIL)
 			return b;
-		if (b == null)
+		if (b == NIL)
 			return a;
 
-		if (compare(a.getFlight(), b.getFlight()) > 0) {
-			b.setPrev(a);
-			b.setSibling(a.getChild());
-			if (a.getChild() != null) {
-				a.getChild().setPrev(b);
-			}
-			a.setChild(b);
-			a.setSibling(null);
-			a.setPrev(null);
-			return a;
-		} else {
-			a.setPrev(b);
-			a.setSibling(b.getChild());
-			if (b.getChild() != null) {
-				b.getChild().setPrev(a);
-			}
-			b.setChild(a);
-			b.setSibling(null);
-			b.setPrev(null);
-			return b;
+		if (compare(b, a) < 0) {
+			int t = a;
+			a = b;
+			b = t;
 		}
+		int first = this.child[a];
+		this.sibling[b] = first;
+		if (first != NIL) {
+			this.prev[first] = b;
+		}
+		this.prev[b] = a;
+		this.child[a] = b;
+		this.sibling[a] = NIL;
+		this.prev[a] = NIL;
+		return a;
 	}
 
-	private PairingHeapNode mergePairs(PairingHeapNode node) {
-		if (node == null || node.getSibling() == null) {
-			return node;
+	// Two-pass merge of a sibling list. The first pass melds pairs left to right
+	// and stacks the results through the sibling links; the second pass melds the
+	// stack, which now runs right to left, into one tree.
+	private int mergePairs(int first) {
+		if (first == NIL)
+			return NIL;
+
+		int stack = NIL;
+		int a = first;
+		while (a != NIL) {
+			int b = this.sibling[a];
+			int next = b == NIL ? NIL : this.sibling[b];
+			this.sibling[a] = NIL;
+			this.prev[a] = NIL;
+			if (b != NIL) {
+				this.sibling[b] = NIL;
+				this.prev[b] = NIL;
+				a = meld(a, b);
+			}
+			this.sibling[a] = stack;
+			stack = a;
+			a = next;
 		}
 
-		// First pass: merge pairs left to right
-		PairingHeapNode nextPair = node.getSibling().getSibling();
-		PairingHeapNode merged = meld(node, node.getSibling());
-		PairingHeapNode rest = mergePairs(nextPair);
+		int result = stack;
+		stack = this.sibling[result];
+		this.sibling[result] = NIL;
+		while (stack != NIL) {
+			int next = this.sibling[stack];
+			this.sibling[stack] = NIL;
+			result = meld(stack, result);
+			stack = next;
+		}
+		return result;
+	}
 
-		// Second pass: merge result with rest
-		return meld(merged, rest);
+	// Unlinks a non-root node, with its subtree, from its parent's child list
+	private void cut(int slot) {
+		int p = this.prev[slot];
+		int s = this.sibling[slot];
+		if (this.child[p] == slot) {
+			this.child[p] = s;
+		} else {
+			this.sibling[p] = s;
+		}
+		if (s != NIL) {
+			this.prev[s] = p;
+		}
+		this.sibling[slot] = NIL;
+		this.prev[slot] = NIL;
 	}
 
+	private void ensureCapacity(int slot) {
+		if (slot < this.prev.length)
+			return;
+
+		int oldLength = this.prev.length;
+		int capacity = Math.max(oldLength * 2, slot + 1);
+		this.child = Arrays.copyOf(this.child, capacity);
+		this.sibling = Arrays.copyOf(this.sibling, capacity);
+		this.prev = Arrays.copyOf(this.prev, capacity);
+		Arrays.fill(this.prev, oldLength, capacity, UNLINKED);
+	}
 }
@@ -0,0 +1,21 @@
+// Flights that have been submitted but not yet placed in the greedy order, as
+// slots of the flight store. Flights come out by priority desc, submitTime asc,
+// flightID asc. The key changes set the flight's priority in the store.
+public interface PendingQueue {
+	boolean isEmpty();
+
+	int size();
+
+	boolean contains(int slot);
+
+	void push(int slot);
+
+	// Returns the slot at the front of the queue, or -1 when it is empty
+	int pop();
+
+	void increaseKey(int slot, int newPriority);
+
+	void decreaseKey(int slot, int newPriority);
+
+	void erase(int slot);
+}
@@ -0,0 +1,37 @@
+// The pending queue implementations the scheduler can be started with
+public enum PendingQueueType {
+	PAIRING("pairing"),
+	DARY("dary"),
+	BUCKET("bucket");
+
+	private String label;
+
+	private PendingQueueType(String label) {
+		this.label = label;
+	}
+
+	public PendingQueue create(FlightStore store) {
+		switch (this) {
+			case DARY:
+				return new DaryHeap(store);
+			case BUCKET:
+				return new PriorityBucketQueue(store);
+			default:
+				return new PairingHeap(store);
+		}
+	}
+
+	public static PendingQueueType fromLabel(String label) {
+		for (PendingQueueType type : values()) {
+			if (type.label.equals(label)) {
+				return type;
+			}
+		}
+		throw new IllegalArgumentException("Unknown pending queue: " + label);
+	}
+
+	@Override
+	public String toString() {
+		return this.label;
+	}
+}
@@ -0,0 +1,146 @@
+import java.io.*;
+
+// Runs the commands of one input in three stages on three threads. A parser
+// thread decodes lines into the command ring, the calling thread runs the
+// scheduler over it, and a writer thread drains the output ring to the file. Every
+// command is executed in input order on one thread and its output goes out in the
+// order it was written, so the result is identical to the serial run.
+public class PipelinedRunner {
+	private static final int COMMAND_RING_SIZE = 4096;
+	private static final int OUTPUT_RING_SIZE = 16;
+	private static final int BLOCK_SIZE = 1 << 16;
+
+	private SpscRing<CommandData> commands;
+	private SpscRing<OutputBlock> blocks;
+	private PendingQueueType queueType;
+	private SchedulerStats stats;
+	private volatile IOException readFailure;
+	private volatile IOException writeFailure;
+
+	public PipelinedRunner(PendingQueueType queueType) {
+		this(queueType, null);
+	}
+
+	public PipelinedRunner(PendingQueueType queueType, SchedulerStats stats) {
+		this.commands = new SpscRing<>(COMMAND_RING_SIZE, () -> new CommandData(CommandType.UNKNOWN, new int[5], null));
+		this.blocks = new SpscRing<>(OUTPUT_RING_SIZE, OutputBlock::new);
+		this.queueType = queueType;
+		this.stats = stats;
+	}
+
+	// ====== External functions of Pipelined Runner ======
+
+	public void run(BufferedReader reader, OutputStream out) throws IOException {
+		Thread parser = new Thread(() -> parse(reader), "pipeline-parser");
+		Thread writer = new Thread(() -> write(out), "pipeline-writer");
+		parser.setDaemon(true);
+		writer.setDaemon(true);
+		parser.start();
+		writer.start();
+
+		try (OutputSink sink = new OutputSink(new RingOutputStream())) {
+			Scheduler scheduler = new Scheduler(sink, this.queueType);
+			scheduler.setStats(this.stats);
+			CommandData cmd;
+			while ((cmd = this.commands.take()) != null) {
+				gatorAirTrafficScheduler.executeCommand(cmd, scheduler, sink);
+				this.commands.release();
+			}
+		}
+
+		try {
+			parser.join();
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for the pipeline", e);
+		}
+		if (this.readFailure != null) {
+			throw this.readFailure;
+		}
+		if (this.writeFailure != null) {
+			throw this.writeFailure;
+		}
+	}
+
+	// ====== Internal functions of Pipelined Runner ======
+
+	private void parse(BufferedReader reader) {
+		CommandParser parser = new CommandParser();
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("//")) {
+					continue;
+				}
+				parser.decode(line, 0, line.length(), this.commands.claim());
+				this.commands.publish();
+			}
+		} catch (IOException e) {
+			this.readFailure = e;
+		} finally {
+			this.commands.close();
+		}
+	}
+
+	private void write(OutputStream out) {
+		OutputBlock block;
+		while ((block = this.blocks.take()) != null) {
+			// After a failure the ring is still drained, so the scheduler never blocks
+			if (this.writeFailure == null) {
+				try {
+					out.write(block.bytes, 0, block.length);
+				} catch (IOException e) {
+					this.writeFailure = e;
+				}
+			}
+			this.blocks.release();
+		}
+		try {
+			out.flush();
+		} catch (IOException e) {
+			if (this.writeFailure == null) {
+				this.writeFailure = e;
+			}
+		}
+	}
+
+	// A chunk of output on its way to the writer
+	private static class OutputBlock {
+		private byte[] bytes;
+		private int length;
+
+		OutputBlock() {
+			this.bytes = new byte[BLOCK_SIZE];
+			this.length = 0;
+		}
+	}
+
+	// The scheduler's end of the output ring. Closing it tells the writer that
+	// no more output is coming.
+	private class RingOutputStream extends OutputStream {
+		@Override
+		public void write(int b) {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			while (len > 0) {
+				OutputBlock block = PipelinedRunner.this.blocks.claim();
+				int n = Math.min(len, BLOCK_SIZE);
+				System.arraycopy(b, off, block.bytes, 0, n);
+				block.length = n;
+				PipelinedRunner.this.blocks.publish();
+				off += n;
+				len -= n;
+			}
+		}
+
+		@Override
+		public void close() {
+			PipelinedRunner.this.blocks.close();
+		}
+	}
+}
@@ -0,0 +1,137 @@
+import java.util.Arrays;
+
+// Pending queue with one bucket per distinct priority, for workloads with few
+// priority levels. Buckets are kept sorted by priority, so the front of the queue
+// is the first flight of the last bucket; inside a bucket flights are ordered by
+// submitTime, then flightID. Every bucket shares the link arrays of one slot tree.
+public class PriorityBucketQueue implements PendingQueue {
+	private FlightStore store;
+	private SlotTree links;
+	private int[] levels;
+	private SlotTree[] buckets;
+	private int levelCount;
+	private int size;
+
+	public PriorityBucketQueue(FlightStore store) {
+		this.store = store;
+		this.links = new SlotTree(this::compareWithinLevel);
+		this.levels = new int[8];
+		this.buckets = new SlotTree[8];
+		this.levelCount = 0;
+		this.size = 0;
+	}
+
+	// ================== External functions of Priority Bucket Queue====================
+
+	@Override
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public boolean contains(int slot) {
+		return this.links.contains(slot);
+	}
+
+	@Override
+	public void push(int slot) {
+		bucketFor(this.store.getPriority(slot)).add(slot);
+		this.size++;
+	}
+
+	@Override
+	public int pop() {
+		if (this.size == 0)
+			return -1;
+
+		int top = this.levelCount - 1;
+		int slot = this.buckets[top].pollFirst();
+		if (this.buckets[top].isEmpty()) {
+			dropLevel(top);
+		}
+		this.size--;
+		return slot;
+	}
+
+	@Override
+	public void increaseKey(int slot, int newPriority) {
+		changeKey(slot, newPriority);
+	}
+
+	@Override
+	public void decreaseKey(int slot, int newPriority) {
+		changeKey(slot, newPriority);
+	}
+
+	@Override
+	public void erase(int slot) {
+		if (!contains(slot))
+			return;
+		removeFromLevel(slot);
+		this.size--;
+	}
+
+	// ================== Internal functions of Priority Bucket Queue====================
+
+	private int compareWithinLevel(int slot1, int slot2) {
+		if (this.store.getSubmitTime(slot1) != this.store.getSubmitTime(slot2)) {
+			return Integer.compare(this.store.getSubmitTime(slot1), this.store.getSubmitTime(slot2));
+		}
+		return Integer.compare(this.store.getFlightID(slot1), this.store.getFlightID(slot2));
+	}
+
+	// Moving between buckets works the same in both directions
+	private void changeKey(int slot, int newPriority) {
+		if (!contains(slot))
+			return;
+		removeFromLevel(slot);
+		this.store.setPriority(slot, newPriority);
+		bucketFor(newPriority).add(slot);
+	}
+
+	// Takes the slot out of the bucket of its current priority
+	private void removeFromLevel(int slot) {
+		int level = Arrays.binarySearch(this.levels, 0, this.levelCount, this.store.getPriority(slot));
+		this.buckets[level].remove(slot);
+		if (this.buckets[level].isEmpty()) {
+			dropLevel(level);
+		}
+	}
+
+	private SlotTree bucketFor(int priority) {
+		int level = Arrays.binarySearch(this.levels, 0, this.levelCount, priority);
+		if (level >= 0)
+			return this.buckets[level];
+
+		level = -level - 1;
+		if (this.levelCount == this.levels.length) {
+			this.levels = Arrays.copyOf(this.levels, this.levelCount * 2);
+			this.buckets = Arrays.copyOf(this.buckets, this.levelCount * 2);
+		}
+
+		// An emptied bucket parked past the end is reused before a new one is made
+		SlotTree bucket = this.buckets[this.levelCount];
+		if (bucket == null) {
+			bucket = this.links.shareLinks();
+		}
+		System.arraycopy(this.levels, level, this.levels, level + 1, this.levelCount - level);
+		System.arraycopy(this.buckets, level, this.buckets, level + 1, this.levelCount - level);
+		this.levels[level] = priority;
+		this.buckets[level] = bucket;
+		this.levelCount++;
+		return bucket;
+	}
+
+	private void dropLevel(int level) {
+		SlotTree bucket = this.buckets[level];
+		this.levelCount--;
+		System.arraycopy(this.levels, level + 1, this.levels, level, this.levelCount - level);
+		System.arraycopy(this.buckets, level + 1, this.buckets, level, this.levelCount - level);
+		this.buckets[this.levelCount] = bucket;
+	}
+}
@@ -1,111 +1,129 @@
+import java.util.Arrays;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-
+// Min heap of runways by next free time, then runway ID. A runway is referred to by
+// its handle, the order in which it was added; IDs and free times live in int arrays
+// indexed by handle and positions[handle] is the runway's index in heap. A 4-ary
+// layout halves the depth, but a runway the greedy loop has just made busy usually
+// sinks to the bottom and pays for the extra comparisons, so binary is the default.
 public class RunwayMinHeap {
-	private ArrayList<Runway> heap;
-	private HashMap<Integer, Integer> positionMap;
+	private int arity;
+	private int[] heap;
+	private int[] positions;
+	private int[] runwayIDs;
+	private int[] freeTimes;
+	private int size;
 
 	public RunwayMinHeap() {
-		this.heap = new ArrayList<>();
-		this.positionMap = new HashMap<>();
+		this(2);
+	}
+
+	public RunwayMinHeap(int arity) {
+		this.arity = arity;
+		this.heap = new int[16];
+		this.positions = new int[16];
+		this.runwayIDs = new int[16];
+		this.freeTimes = new int[16];
+		this.size = 0;
 	}
 
 	// ================== External functions of Runway Min Heap====================
 
 	public int getRunwayCount() {
-		return this.heap.size();
-	}
-
-	public void insert(Runway runway) {
-		this.heap.add(runway);
-		int index = this.heap.size() - 1;
-		this.positionMap.put(runway.getRunwayID(), index);
-		heapifyUp(index);
+		return this.size;
 	}
 
-	public Runway extractMin() {
-		if (this.heap.isEmpty())
-			return null;
-
-		Runway minRunway = this.heap.get(0);
-		this.positionMap.remove(minRunway.getRunwayID());
-
-		if (this.heap.size() == 1) {
-			this.heap.clear();
-			return minRunway;
+	// Adds a runway and returns its handle
+	public int add(int runwayID, int nextFreeTime) {
+		if (this.size == this.heap.length) {
+			int capacity = this.size * 2;
+			this.heap = Arrays.copyOf(this.heap, capacity);
+			this.positions = Arrays.copyOf(this.positions, capacity);
+			this.runwayIDs = Arrays.copyOf(this.runwayIDs, capacity);
+			this.freeTimes = Arrays.copyOf(this.freeTimes, capacity);
 		}
-
-		this.heap.set(0, this.heap.get(this.heap.size() - 1));
-		this.heap.remove(this.heap.size() - 1);
-		this.positionMap.put(this.heap.get(0).getRunwayID(), 0);
-		heapifyDown(0);
-
-		return minRunway;
+		int handle = this.size++;
+		this.runwayIDs[handle] = runwayID;
+		this.freeTimes[handle] = nextFreeTime;
+		siftUp(handle, handle);
+		return handle;
 	}
 
-	public ArrayList<Runway> getAllRunways() {
-		return new ArrayList<>(this.heap);
+	// Handle of the runway that is free first, or -1 when there are none
+	public int peekMin() {
+		return this.size == 0 ? -1 : this.heap[0];
 	}
 
-	public void deleteAllRunways() {
-		this.heap.clear();
-		this.positionMap.clear();
+	// Gives the top runway a new free time and moves it to its place in one pass
+	public void replaceMin(int nextFreeTime) {
+		int handle = this.heap[0];
+		this.freeTimes[handle] = nextFreeTime;
+		siftDown(0, handle);
 	}
 
-	// ================== Internal functions of Runway Min Heap====================
-
-	private int parentInd(int i) {
-		return (i - 1) / 2;
+	public void setNextFreeTime(int handle, int nextFreeTime) {
+		int oldFreeTime = this.freeTimes[handle];
+		this.freeTimes[handle] = nextFreeTime;
+		if (nextFreeTime < oldFreeTime) {
+			siftUp(this.positions[handle], handle);
+		} else {
+			siftDown(this.positions[handle], handle);
+		}
 	}
 
-	private int leftChildInd(int i) {
-		return 2 * i + 1;
+	public int getRunwayID(int handle) {
+		return this.runwayIDs[handle];
 	}
 
-	private int rightChildInd(int i) {
-		return 2 * i + 2;
+	public int getNextFreeTime(int handle) {
+		return this.freeTimes[handle];
 	}
 
-	private void swap(int i, int j) {
-		Runway temp = this.heap.get(i);
-		this.heap.set(i, this.heap.get(j));
-		this.heap.set(j, temp);
-
-		this.positionMap.put(this.heap.get(i).getRunwayID(), i);
-		this.positionMap.put(this.heap.get(j).getRunwayID(), j);
-	}
+	// ================== Internal functions of Runway Min Heap====================
 
-	private void heapifyUp(int i) {
-		while (i > 0 && compare(this.heap.get(i), this.heap.get(parentInd(i))) < 0) {
-			swap(i, parentInd(i));
-			i = parentInd(i);
+	private int compare(int handle1, int handle2) {
+		if (this.freeTimes[handle1] != this.freeTimes[handle2]) {
+			return Integer.compare(this.freeTimes[handle1], this.freeTimes[handle2]);
 		}
+		return Integer.compare(this.runwayIDs[handle1], this.runwayIDs[handle2]);
 	}
 
-	private void heapifyDown(int i) {
-		int minIndex = i;
-		int left = leftChildInd(i);
-		int right = rightChildInd(i);
-
-		if (left < this.heap.size() && compare(this.heap.get(left), this.heap.get(minIndex)) < 0) {
-			minIndex = left;
-		}
-		if (right < this.heap.size() && compare(this.heap.get(right), this.heap.get(minIndex)) < 0) {
-			minIndex = right;
-		}
-
-		if (minIndex != i) {
-			swap(i, minIndex);
-			heapifyDown(minIndex);
+	// Moves the hole at index up until handle fits there
+	private void siftUp(int index, int handle) {
+		while (index > 0) {
+			int parentIndex = (index - 1) / this.arity;
+			int parent = this.heap[parentIndex];
+			if (compare(handle, parent) >= 0)
+				break;
+			this.heap[index] = parent;
+			this.positions[parent] = index;
+			index = parentIndex;
 		}
+		this.heap[index] = handle;
+		this.positions[handle] = index;
 	}
 
-	private int compare(Runway runway1, Runway runway2) {
-		if (runway1.getNextFreeTime() != runway2.getNextFreeTime()) {
-			return Integer.compare(runway1.getNextFreeTime(), runway2.getNextFreeTime());
+	// Moves the hole at index down until handle fits there
+	private void siftDown(int index, int handle) {
+		while (true) {
+			int firstChild = index * this.arity + 1;
+			if (firstChild >= this.size)
+				break;
+
+			int min = firstChild;
+			int end = Math.min(firstChild + this.arity, this.size);
+			for (int i = firstChild + 1; i < end; i++) {
+				if (compare(this.heap[i], this.heap[min]) < 0) {
+					min = i;
+				}
+			}
+			if (compare(this.heap[min], handle) >= 0)
+				break;
+
+			this.heap[index] = this.heap[min];
+			this.positions[this.heap[index]] = index;
+			index = min;
 		}
-		return Integer.compare(runway1.getRunwayID(), runway2.getRunwayID());
+		this.heap[index] = handle;
+		this.positions[handle] = index;
 	}
-
 }
@@ -0,0 +1,142 @@
+import java.util.Arrays;
+
+// Immutable copy of what PrintActive and PrintSchedule show, published by the
+// scheduler after a command. A view never changes once published, so any number
+// of threads can query it while the scheduler goes on applying commands, and
+// neither side waits for the other. Views with the same state but a different
+// current time share their arrays.
+public final class ScheduleView {
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+
+	private final long version;
+	private final long stateEpoch;
+	private final int currentTime;
+
+	// Active flights in flightID order
+	private final int[] flightIDs;
+	private final int[] airlineIDs;
+	private final int[] runwayIDs;
+	private final int[] startTimes;
+	private final int[] endTimes;
+
+	// Scheduled flights in (ETA, flightID) order
+	private final int[] scheduleIDs;
+	private final int[] scheduleStarts;
+	private final int[] scheduleEnds;
+
+	ScheduleView(long version, long stateEpoch, int currentTime, int[] flightIDs, int[] airlineIDs, int[] runwayIDs,
+			int[] startTimes, int[] endTimes, int[] scheduleIDs, int[] scheduleStarts, int[] scheduleEnds) {
+		this.version = version;
+		this.stateEpoch = stateEpoch;
+		this.currentTime = currentTime;
+		this.flightIDs = flightIDs;
+		this.airlineIDs = airlineIDs;
+		this.runwayIDs = runwayIDs;
+		this.startTimes = startTimes;
+		this.endTimes = endTimes;
+		this.scheduleIDs = scheduleIDs;
+		this.scheduleStarts = scheduleStarts;
+		this.scheduleEnds = scheduleEnds;
+	}
+
+	// ================== External functions of Schedule View====================
+
+	// Number of commands the scheduler had applied when it published this view
+	public long getVersion() {
+		return this.version;
+	}
+
+	// Scheduler.getStateEpoch() when the arrays were copied; views with the same
+	// epoch show the same flights
+	public long getStateEpoch() {
+		return this.stateEpoch;
+	}
+
+	public int getCurrentTime() {
+		return this.currentTime;
+	}
+
+	public int getFlightCount() {
+		return this.flightIDs.length;
+	}
+
+	public int getFlightID(int index) {
+		return this.flightIDs[index];
+	}
+
+	public int getAirlineID(int index) {
+		return this.airlineIDs[index];
+	}
+
+	public int getRunwayID(int index) {
+		return this.runwayIDs[index];
+	}
+
+	public int getStartTime(int index) {
+		return this.startTimes[index];
+	}
+
+	public int getEndTime(int index) {
+		return this.endTimes[index];
+	}
+
+	// Index of the flight, or -1 if it is not active
+	public int indexOf(int flightID) {
+		int index = Arrays.binarySearch(this.flightIDs, flightID);
+		return index >= 0 ? index : -1;
+	}
+
+	// The text PrintActive would have printed
+	public String formatActive() {
+		if (this.flightIDs.length == 0)
+			return "No active flights" + LINE_SEPARATOR;
+
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < this.flightIDs.length; i++) {
+			sb.append("[flight").append(this.flightIDs[i]).append(", airline").append(this.airlineIDs[i])
+					.append(", runway").append(this.runwayIDs[i]).append(", start").append(this.startTimes[i])
+					.append(", ETA").append(this.endTimes[i]).append(']').append(LINE_SEPARATOR);
+		}
+		return sb.toString();
+	}
+
+	// The text PrintSchedule(endTime1, endTime2) would have printed
+	public String formatSchedule(int endTime1, int endTime2) {
+		StringBuilder sb = new StringBuilder();
+		if (endTime1 <= endTime2) {
+			for (int i = firstEndingFrom(endTime1); i < this.scheduleEnds.length
+					&& this.scheduleEnds[i] <= endTime2; i++) {
+				// Same filter as Scheduler.printSchedule
+				if (this.scheduleStarts[i] > this.currentTime) {
+					sb.append('[').append(this.scheduleIDs[i]).append(']').append(LINE_SEPARATOR);
+				}
+			}
+		}
+
+		if (sb.length() == 0)
+			return "There are no flights in that time period" + LINE_SEPARATOR;
+		return sb.toString();
+	}
+
+	// ================== Internal functions of Schedule View====================
+
+	// Same state at a later command
+	ScheduleView at(long version, int currentTime) {
+		return new ScheduleView(version, this.stateEpoch, currentTime, this.flightIDs, this.airlineIDs, this.runwayIDs,
+				this.startTimes, this.endTimes, this.scheduleIDs, this.scheduleStarts, this.scheduleEnds);
+	}
+
+	private int firstEndingFrom(int endTime) {
+		int low = 0;
+		int high = this.scheduleEnds.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (this.scheduleEnds[mid] < endTime) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
@@ -1,25 +1,115 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.*;
-import java.io.PrintWriter;
 
 public class Scheduler {
+	// What has happened since the last reschedule that can move an ETA
+	private static final int RUNWAY_FREED = 1;
+	private static final int FLIGHT_PROMOTED = 2;
+	private static final int QUEUE_MUTATED = 4;
+	private static final int RUNWAYS_CHANGED = 8;
+	private static final int ALL_CHANGES = RUNWAY_FREED | FLIGHT_PROMOTED | QUEUE_MUTATED | RUNWAYS_CHANGED;
+
+	// Flights live in the store and every structure below refers to them by slot
+	private FlightStore flights;
 	private RunwayMinHeap runways;
-	private PairingHeap pendingFlights;
+	private PendingQueue pendingFlights;
 	private TimetableMinHeap timetable;
-	private HashMap<Integer, Flight> activeFlights;
-	private HashMap<Integer, HashSet<Integer>> airlineIndex;
-	private HashMap<Integer, PairingHeapNode> handles;
+	private TimetableMinHeap startQueue;
+	private SlotTree etaIndex;
+	private SlotTree flightsByID;
+	private SlotTree airlineIndex;
 	private int currentTime;
-	private PrintWriter output;
+	private OutputSink output;
+	private EtaUpdateList etaUpdates;
+
+	// A slot outside the active set that holds the bounds of range searches
+	private int searchKey;
+	private int[] groundedSlots;
+
+	// Incremental rescheduling state: the unstarted flights in greedy order, the
+	// same flights split per runway, and the ETA of the last flight started on
+	// each runway. Runway lists are indexed by runway handle, which is runwayID - 1
+	// unless Initialize ran twice.
+	private SlotTree scheduleOrder;
+	private ArrayList<SlotTree> runwayOrders;
+	private int[] runwayReleaseTimes;
+	private int rescheduleFrom;
+	private boolean rescheduleAll;
+	private boolean incremental;
+
+	// Scratch for the full rebuild, indexed by runway ID. IDs never exceed the
+	// runway count, so both grow along with the runways.
+	private int[] rebuildRunwayTimes;
+	private long[] rebuildClaims;
+
+	// Changes not yet seen by a reschedule, and a count of all changes so far. A
+	// time update with nothing landing or starting leaves the schedule as it is.
+	private int pendingChanges;
+	private long stateEpoch;
+
+	// Optional instrumentation, null when off
+	private SchedulerStats stats;
+
+	// Read-only views for other threads, published after every command once
+	// enabled; only rebuilt when the state epoch moved since the last one
+	private boolean publishingViews;
+	private volatile ScheduleView view;
+	private long commandCount;
+	private long viewEpoch;
+
+	// State of the batch applyBatch is running: the slot and final ETA of every
+	// submitted flight (-1 for a duplicate), whether it has landed already, and the
+	// ETA each earlier flight had before the batch first moved it
+	private boolean batching;
+	private int[] batchSlots;
+	private int[] batchEtas;
+	private boolean[] batchLanded;
+	private IntHashMap batchFlightIDs;
+	private IntHashMap batchOriginalEtas;
+	private EtaUpdateList batchChanges;
+
+	public Scheduler(OutputSink output) {
+		this(output, PendingQueueType.PAIRING);
+	}
 
-	public Scheduler(PrintWriter output) {
+	public Scheduler(OutputSink output, PendingQueueType queueType) {
+		this.flights = new FlightStore();
 		this.runways = new RunwayMinHeap();
-		this.pendingFlights = new PairingHeap();
-		this.timetable = new TimetableMinHeap();
-		this.activeFlights = new HashMap<>();
-		this.airlineIndex = new HashMap<>();
-		this.handles = new HashMap<>();
+		this.pendingFlights = queueType.create(this.flights);
+		this.timetable = new TimetableMinHeap(this.flights, this.flights::getEndTime);
+		this.startQueue = new TimetableMinHeap(this.flights, this.flights::getStartTime);
+		this.etaIndex = new SlotTree(this::compareByEndTime);
+		this.flightsByID = new SlotTree(this::compareByFlightID);
+		this.airlineIndex = new SlotTree(this::compareByAirline);
 		this.currentTime = 0;
 		this.output = output;
+		this.etaUpdates = new EtaUpdateList();
+		this.searchKey = this.flights.allocate();
+		this.groundedSlots = new int[16];
+		this.scheduleOrder = new SlotTree(this::compareByPriority);
+		this.runwayOrders = new ArrayList<>();
+		this.runwayReleaseTimes = new int[4];
+		this.rebuildRunwayTimes = new int[5];
+		this.rebuildClaims = new long[5];
+		this.rescheduleFrom = -1;
+		this.rescheduleAll = false;
+		this.incremental = true;
+		this.pendingChanges = 0;
+		this.stateEpoch = 0;
+		this.stats = null;
+		this.publishingViews = false;
+		this.view = null;
+		this.commandCount = 0;
+		this.viewEpoch = -1;
+		this.batching = false;
+		this.batchSlots = new int[16];
+		this.batchEtas = new int[16];
+		this.batchLanded = new boolean[16];
+		this.batchFlightIDs = new IntHashMap();
+		this.batchOriginalEtas = new IntHashMap();
+		this.batchChanges = new EtaUpdateList();
 	}
 
 	public void initialize(int runwayCount) {
@@ -30,12 +120,20 @@ public class Scheduler {
 			return;
 		}
 
+		// Runway IDs restart at 1, so a second Initialize can only be handled by the
+		// full rebuild
+		if (this.runways.getRunwayCount() > 0) {
+			this.incremental = false;
+		}
+
 		// Adding all the runways
 		for (int i = 1; i <= runwayCount; i++) {
-			this.runways.insert(new Runway(i, 0));
+			this.runways.add(i, 0);
+			addRunwayState(0);
 		}
+		noteChange(RUNWAYS_CHANGED);
 
-		this.output.println(runwayCount + " Runways are now available");
+		this.output.print(runwayCount).println(" Runways are now available");
 	}
 
 	public void submitFlight(int flightID, int airlineID, int submitTime, int priority, int duration) {
@@ -43,62 +141,152 @@ public class Scheduler {
 		// Updating the current time
 		updateCurrentTime(submitTime);
 
-		if (this.activeFlights.containsKey(flightID)) {
+		if (this.flights.find(flightID) != -1) {
 			this.output.println("Duplicate FlightID");
 			return;
 		}
 
 		// Adding the flight in all the datastructures
-		Flight flight = new Flight(flightID, airlineID, submitTime, priority, duration);
-		this.activeFlights.put(flightID, flight);
-		if (!this.airlineIndex.containsKey(airlineID)) {
-			this.airlineIndex.put(airlineID, new HashSet<>());
-		}
-		this.airlineIndex.get(airlineID).add(flightID);
-		PairingHeapNode node = this.pendingFlights.push(flight);
-		this.handles.put(flightID, node);
+		int slot = this.flights.add(flightID, airlineID, submitTime, priority, duration);
+		this.flightsByID.add(slot);
+		this.airlineIndex.add(slot);
+		this.pendingFlights.push(slot);
+		noteChange(QUEUE_MUTATED);
 
 		// Schedule this flight and updating the ETAs if required
-		ArrayList<String> updatedETAs = rescheduleFlights();
-		this.output.println("Flight " + flightID + " scheduled - ETA: " + flight.getEndTime());
+		EtaUpdateList updatedETAs = rescheduleFlights();
+		this.output.print("Flight ").print(flightID).print(" scheduled - ETA: ").print(this.flights.getEndTime(slot))
+				.println();
 		printAllChangedETAs(updatedETAs);
 
 	}
 
+	// Submits a run of SubmitFlight commands that share a submit time and reschedules
+	// once for the whole run instead of once per flight. Each flight is reported
+	// with its ETA after the run, followed by a single Updated ETAs line for the
+	// flights scheduled before it. The state afterwards is the same as after
+	// submitting the flights one by one.
+	public void applyBatch(CommandData[] commands, int from, int to) {
+		int submitTime = commands[from].getParam(2);
+		for (int i = from; i < to; i++) {
+			if (commands[i].getType() != CommandType.SUBMIT_FLIGHT || commands[i].getParam(2) != submitTime) {
+				throw new IllegalArgumentException("A batch takes SubmitFlight commands with one submit time");
+			}
+		}
+
+		int count = to - from;
+		if (this.batchSlots.length < count) {
+			this.batchSlots = new int[count];
+			this.batchEtas = new int[count];
+			this.batchLanded = new boolean[count];
+		}
+		Arrays.fill(this.batchLanded, 0, count, false);
+		this.batchFlightIDs.clear();
+		this.batchOriginalEtas.clear();
+		this.batchChanges.clear();
+
+		// Updating the current time, as the first submit would
+		updateCurrentTime(submitTime);
+		this.batching = true;
+		try {
+			int next = 0;
+			while (next < count) {
+				// A flight submitted while a runway is idle may start right away, and the
+				// next submit promotes it before anything else is scheduled; those flights
+				// have to go one at a time. Once every runway is busy past now, the rest of
+				// the run cannot start before a later command, so it is added in one go.
+				if (this.incremental && this.runways.getRunwayCount() > 0 && !runwayIdleAt(this.currentTime)) {
+					boolean added = false;
+					while (next < count) {
+						added |= addBatchFlight(commands[from + next], next);
+						next++;
+					}
+					if (added) {
+						rescheduleFlights();
+					}
+					break;
+				}
+
+				if (addBatchFlight(commands[from + next], next)) {
+					rescheduleFlights();
+				}
+				next++;
+				if (next < count) {
+					// What the following submit does first
+					refreshBatchEtas(next);
+					updateCurrentTime(submitTime);
+					markLandedBatchFlights(next);
+				}
+			}
+			refreshBatchEtas(count);
+		} finally {
+			this.batching = false;
+		}
+
+		for (int i = 0; i < count; i++) {
+			if (this.batchSlots[i] == -1) {
+				this.output.println("Duplicate FlightID");
+			} else {
+				this.output.print("Flight ").print(commands[from + i].getParam(0)).print(" scheduled - ETA: ")
+						.print(this.batchEtas[i]).println();
+			}
+		}
+
+		// Earlier flights that ended up where they started are left out
+		this.etaUpdates.clear();
+		for (int i = 0; i < this.batchChanges.size(); i++) {
+			int flightID = this.batchChanges.getFlightID(i);
+			int slot = this.flights.find(flightID);
+			if (slot != -1 && this.flights.getEndTime(slot) != this.batchChanges.getEndTime(i)) {
+				this.etaUpdates.add(flightID, this.flights.getEndTime(slot));
+			}
+		}
+		printAllChangedETAs(this.etaUpdates);
+	}
+
 	public void cancelFlight(int flightID, int currentTime) {
 
 		// Updating the current time
 		updateCurrentTime(currentTime);
 
-		if (!this.activeFlights.containsKey(flightID)) {
-			this.output.println("Flight " + flightID + " does not exist");
+		int slot = this.flights.find(flightID);
+		if (slot == -1) {
+			this.output.print("Flight ").print(flightID).println(" does not exist");
 			return;
 		}
-		Flight flight = this.activeFlights.get(flightID);
+		StatusType state = this.flights.getState(slot);
 
-		if (flight.getLifeCycleState() == StatusType.IN_PROGRESS ||
-				flight.getLifeCycleState() == StatusType.COMPLETED) {
-			this.output.println("Cannot cancel. Flight " + flightID + " has already departed");
+		if (state == StatusType.IN_PROGRESS || state == StatusType.COMPLETED) {
+			this.output.print("Cannot cancel. Flight ").print(flightID).println(" has already departed");
 			return;
 		}
 
 		// Remove from all data structures
-		this.activeFlights.remove(flightID);
-		HashSet<Integer> airlineFlights = this.airlineIndex.get(flight.getAirlineID());
-		if (airlineFlights != null) {
-			airlineFlights.remove(flightID);
-		}
-		PairingHeapNode node = this.handles.get(flightID);
-		if (node != null) {
-			this.pendingFlights.erase(node);
-			this.handles.remove(flightID);
+		this.flights.deactivate(slot);
+		this.flightsByID.remove(slot);
+		this.airlineIndex.remove(slot);
+		this.pendingFlights.erase(slot);
+		this.startQueue.remove(slot);
+		this.etaIndex.remove(slot);
+		if (this.incremental && state == StatusType.SCHEDULED) {
+			unscheduleFlight(slot);
+
+			// With nothing left to reschedule the timetable is not rebuilt and keeps the
+			// canceled flight, which only the full rebuild reproduces
+			if (this.scheduleOrder.isEmpty() && this.pendingFlights.isEmpty()) {
+				this.incremental = false;
+			} else {
+				this.timetable.remove(slot);
+			}
 		}
+		releaseIfUnused(slot);
+		noteChange(QUEUE_MUTATED);
 
 		// Updated the ETAs
-		ArrayList<String> updatedETAs = rescheduleFlights();
+		EtaUpdateList updatedETAs = rescheduleFlights();
 
 		// Printing all the output
-		this.output.println("Flight " + flightID + " has been canceled");
+		this.output.print("Flight ").print(flightID).println(" has been canceled");
 		printAllChangedETAs(updatedETAs);
 	}
 
@@ -107,35 +295,47 @@ public class Scheduler {
 		// Updating the current time
 		updateCurrentTime(currentTime);
 
-		Flight flight = this.activeFlights.get(flightID);
-		if (flight == null) {
-			this.output.println("Flight " + flightID + " not found");
+		int slot = this.flights.find(flightID);
+		if (slot == -1) {
+			this.output.print("Flight ").print(flightID).println(" not found");
 			return;
 		}
-		if (flight.getLifeCycleState() == StatusType.IN_PROGRESS ||
-				flight.getLifeCycleState() == StatusType.COMPLETED) {
-			this.output.println("Cannot reprioritize. Flight " + flightID + " has already departed");
+		StatusType state = this.flights.getState(slot);
+		if (state == StatusType.IN_PROGRESS || state == StatusType.COMPLETED) {
+			this.output.print("Cannot reprioritize. Flight ").print(flightID).println(" has already departed");
 			return;
 		}
 
-		int oldPriority = flight.getPriority();
-		flight.setPriority(newPriority);
-		PairingHeapNode node = this.handles.get(flightID);
-		if (node != null) {
+		// The flight leaves its old position in the greedy order and takes a new one,
+		// so everything from the earlier of the two has to be reassigned
+		boolean reorder = this.incremental && state == StatusType.SCHEDULED;
+		if (reorder) {
+			unscheduleFlight(slot);
+		}
+
+		int oldPriority = this.flights.getPriority(slot);
+		this.flights.setPriority(slot, newPriority);
+
+		if (reorder) {
+			this.scheduleOrder.add(slot);
+			this.runwayOrders.get(this.flights.getRunwayID(slot) - 1).add(slot);
+			markChanged(slot);
+		}
+
+		if (this.pendingFlights.contains(slot)) {
 			if (newPriority > oldPriority) {
 				// For increase increaseKey
-				this.pendingFlights.increaseKey(node, newPriority);
+				this.pendingFlights.increaseKey(slot, newPriority);
 			} else {
-				// For decrease, remove and re-insert
-				this.pendingFlights.erase(node);
-				PairingHeapNode newNode = this.pendingFlights.push(flight);
-				this.handles.put(flightID, newNode);
+				this.pendingFlights.decreaseKey(slot, newPriority);
 			}
 		}
 
+		noteChange(QUEUE_MUTATED);
+
 		// Rescheduling unsatisfied flights
-		ArrayList<String> updatedETAs = rescheduleFlights();
-		this.output.println("Priority of Flight " + flightID + " has been updated to " + newPriority);
+		EtaUpdateList updatedETAs = rescheduleFlights();
+		this.output.print("Priority of Flight ").print(flightID).print(" has been updated to ").print(newPriority).println();
 		printAllChangedETAs(updatedETAs);
 
 	}
@@ -153,12 +353,17 @@ public class Scheduler {
 		// Adding new runways
 		int currentRunwayCount = this.runways.getRunwayCount();
 		for (int i = 0; i < count; i++) {
-			this.runways.insert(new Runway(currentRunwayCount + i + 1, currentTime));
+			this.runways.add(currentRunwayCount + i + 1, currentTime);
+			addRunwayState(currentTime);
 		}
 
+		// A new runway can take over any position of the greedy order
+		this.rescheduleAll = true;
+		noteChange(RUNWAYS_CHANGED);
+
 		// Rescheduling the flights
-		ArrayList<String> updatedETAs = rescheduleFlights();
-		this.output.println("Additional " + count + " Runways are now available");
+		EtaUpdateList updatedETAs = rescheduleFlights();
+		this.output.print("Additional ").print(count).println(" Runways are now available");
 		printAllChangedETAs(updatedETAs);
 
 	}
@@ -173,96 +378,86 @@ public class Scheduler {
 			return;
 		}
 
-		// Fetching all the flights with airlineID between low and high
-		ArrayList<Integer> toRemove = new ArrayList<>();
-		for (int airlineID = airlineLow; airlineID <= airlineHigh; airlineID++) {
-			HashSet<Integer> flights = this.airlineIndex.get(airlineID);
-			if (flights != null) {
-				for (int flightID : flights) {
-					Flight flight = this.activeFlights.get(flightID);
-					if (flight != null &&
-							(flight.getLifeCycleState() == StatusType.PENDING ||
-									flight.getLifeCycleState() == StatusType.SCHEDULED)) {
-						toRemove.add(flightID);
-					}
+		// Fetching all the flights with airlineID between low and high; the airline
+		// index is ordered by airline, so this is a single range walk
+		int groundedCount = 0;
+		this.flights.setAirlineID(this.searchKey, airlineLow);
+		this.flights.setFlightID(this.searchKey, Integer.MIN_VALUE);
+		for (int slot = this.airlineIndex.ceiling(this.searchKey); slot != -1
+				&& this.flights.getAirlineID(slot) <= airlineHigh; slot = this.airlineIndex.next(slot)) {
+			StatusType state = this.flights.getState(slot);
+			if (state == StatusType.PENDING || state == StatusType.SCHEDULED) {
+				if (groundedCount == this.groundedSlots.length) {
+					this.groundedSlots = Arrays.copyOf(this.groundedSlots, groundedCount * 2);
 				}
+				this.groundedSlots[groundedCount++] = slot;
 			}
 		}
 
-		// Deleting all the flights with those flightID
-		for (int flightID : toRemove) {
-			Flight flight = this.activeFlights.get(flightID);
-			if (flight != null) {
-				this.activeFlights.remove(flightID);
-				HashSet<Integer> airlineFlights = this.airlineIndex.get(flight.getAirlineID());
-				if (airlineFlights != null) {
-					airlineFlights.remove(flightID);
-				}
-				PairingHeapNode node = this.handles.get(flightID);
-				if (node != null) {
-					this.pendingFlights.erase(node);
-					this.handles.remove(flightID);
-				}
-				this.timetable.remove(flight);
+		// Deleting all those flights
+		for (int i = 0; i < groundedCount; i++) {
+			int slot = this.groundedSlots[i];
+			this.flights.deactivate(slot);
+			this.flightsByID.remove(slot);
+			this.airlineIndex.remove(slot);
+			this.pendingFlights.erase(slot);
+			if (this.incremental && this.flights.getState(slot) == StatusType.SCHEDULED) {
+				unscheduleFlight(slot);
 			}
+			this.startQueue.remove(slot);
+			this.etaIndex.remove(slot);
+			this.timetable.remove(slot);
+			this.flights.release(slot);
+		}
+		if (groundedCount > 0) {
+			noteChange(QUEUE_MUTATED);
 		}
 
-		ArrayList<String> updatedETAs = rescheduleFlights();
-		this.output.println(
-				"Flights of the airlines in the range [" + airlineLow + ", " + airlineHigh + "] have been grounded");
+		EtaUpdateList updatedETAs = rescheduleFlights();
+		this.output.print("Flights of the airlines in the range [").print(airlineLow).print(", ").print(airlineHigh)
+				.println("] have been grounded");
 		printAllChangedETAs(updatedETAs);
 	}
 
 	public void printActive() {
-		ArrayList<Flight> flights = new ArrayList<>();
-
-		for (Flight flight : this.activeFlights.values()) {
-			if (flight.getLifeCycleState() != StatusType.COMPLETED) {
-				flights.add(flight);
+		boolean found = false;
+
+		// flightsByID holds the active flights in flightID order, so no sorting is needed
+		for (int slot = this.flightsByID.first(); slot != -1; slot = this.flightsByID.next(slot)) {
+			if (this.flights.getState(slot) != StatusType.COMPLETED) {
+				this.output.print("[flight").print(this.flights.getFlightID(slot)).print(", airline")
+						.print(this.flights.getAirlineID(slot)).print(", runway").print(this.flights.getRunwayID(slot))
+						.print(", start").print(this.flights.getStartTime(slot)).print(", ETA")
+						.print(this.flights.getEndTime(slot)).println("]");
+				found = true;
 			}
 		}
 
-		if (flights.isEmpty()) {
+		if (!found) {
 			this.output.println("No active flights");
-			return;
-		}
-
-		flights.sort((a, b) -> Integer.compare(a.getFlightID(), b.getFlightID()));
-		for (Flight flight : flights) {
-			this.output.println(flight);
-			// this.output.println("[flight" + flight.getFlightID() + ", airline" +
-			// flight.getAirlineID() +
-			// ", runway" + flight.getRunwayID() + ", start" + flight.getStartTime() +
-			// ", ETA" + flight.getEndTime() + "]");
 		}
 	}
 
 	public void printSchedule(int endTime1, int endTime2) {
-		ArrayList<Flight> scheduledFlights = new ArrayList<>();
-
-		for (Flight flight : this.activeFlights.values()) {
-			if (flight.getLifeCycleState() == StatusType.SCHEDULED &&
-					flight.getStartTime() > this.currentTime &&
-					flight.getEndTime() >= endTime1 &&
-					flight.getEndTime() <= endTime2) {
-				scheduledFlights.add(flight);
+		boolean found = false;
+
+		// The ETA index is already ordered by (ETA, flightID), so the window is a
+		// single range walk
+		if (endTime1 <= endTime2) {
+			this.flights.setEndTime(this.searchKey, endTime1);
+			this.flights.setFlightID(this.searchKey, Integer.MIN_VALUE);
+			for (int slot = this.etaIndex.ceiling(this.searchKey); slot != -1
+					&& this.flights.getEndTime(slot) <= endTime2; slot = this.etaIndex.next(slot)) {
+				// Flights starting right now are not promoted yet but have left the schedule
+				if (this.flights.getStartTime(slot) > this.currentTime) {
+					this.output.print("[").print(this.flights.getFlightID(slot)).println("]");
+					found = true;
+				}
 			}
 		}
 
-		if (scheduledFlights.isEmpty()) {
+		if (!found) {
 			this.output.println("There are no flights in that time period");
-			return;
-		}
-
-		scheduledFlights.sort((a, b) -> {
-			if (a.getEndTime() != b.getEndTime()) {
-				return Integer.compare(a.getEndTime(), b.getEndTime());
-			}
-			return Integer.compare(a.getFlightID(), b.getFlightID());
-		});
-
-		for (Flight flight : scheduledFlights) {
-			this.output.println("[" + flight.getFlightID() + "]");
 		}
 	}
 
@@ -270,173 +465,733 @@ public class Scheduler {
 		updateCurrentTime(time);
 	}
 
+	public int getCurrentTime() {
+		return this.currentTime;
+	}
+
+	// Time of the next landing or start, or -1 when nothing is scheduled. It can
+	// lie before the current time when a command came in with an older time.
+	public int nextEventTime() {
+		int landing = this.timetable.peek();
+		int start = this.startQueue.peek();
+		if (landing == -1 && start == -1)
+			return -1;
+		if (landing == -1)
+			return this.flights.getStartTime(start);
+		if (start == -1)
+			return this.flights.getEndTime(landing);
+		return Math.min(this.flights.getEndTime(landing), this.flights.getStartTime(start));
+	}
+
+	// Ticks to the next landing or start, with the same output as that Tick, and
+	// returns the new current time; -1 when nothing is scheduled
+	public int advanceToNextEvent() {
+		int event = nextEventTime();
+		if (event == -1)
+			return -1;
+
+		updateCurrentTime(Math.max(event, this.currentTime));
+		return this.currentTime;
+	}
+
 	public void quit() {
 		this.output.print("Program Terminated!!");
 		this.output.flush();
 	}
 
+	public void setStats(SchedulerStats stats) {
+		this.stats = stats;
+	}
+
+	public SchedulerStats getStats() {
+		return this.stats;
+	}
+
+	// Grows with every change that can move an ETA and every reschedule, so two
+	// equal values mean the schedule has not changed in between
+	public long getStateEpoch() {
+		return this.stateEpoch;
+	}
+
+	// Brackets one command for the stats, if any are kept
+	public void beginCommand(CommandType type) {
+		if (this.stats != null) {
+			this.stats.beginCommand(type);
+		}
+	}
+
+	public void endCommand() {
+		this.commandCount++;
+		if (this.stats != null) {
+			this.stats.endCommand();
+		}
+		if (this.publishingViews) {
+			publishView();
+		}
+	}
+
+	// Starts publishing a ScheduleView after every command, beginning with one of
+	// the current state
+	public void enableViews() {
+		this.publishingViews = true;
+		publishView();
+	}
+
+	// The view published after the latest command, or null before enableViews().
+	// Safe to call from any thread.
+	public ScheduleView getView() {
+		return this.view;
+	}
+
+	// Writes the complete state between two commands. Heaps are written in array
+	// order, so reinserting them in that order rebuilds the same arrays.
+	public void writeSnapshot(DataOutput out) throws IOException {
+		out.writeInt(this.currentTime);
+		out.writeInt(this.searchKey);
+		out.writeInt(this.rescheduleFrom);
+		out.writeBoolean(this.rescheduleAll);
+		out.writeBoolean(this.incremental);
+		this.flights.writeTo(out);
+
+		out.writeInt(this.runways.getRunwayCount());
+		for (int i = 0; i < this.runways.getRunwayCount(); i++) {
+			out.writeInt(this.runways.getRunwayID(i));
+			out.writeInt(this.runways.getNextFreeTime(i));
+			out.writeInt(this.runwayReleaseTimes[i]);
+			writeSlots(out, this.runwayOrders.get(i));
+		}
+
+		out.writeInt(this.timetable.size());
+		for (int i = 0; i < this.timetable.size(); i++) {
+			out.writeInt(this.timetable.get(i));
+		}
+		out.writeInt(this.startQueue.size());
+		for (int i = 0; i < this.startQueue.size(); i++) {
+			out.writeInt(this.startQueue.get(i));
+		}
+
+		out.writeInt(this.pendingFlights.size());
+		for (int slot = 0; slot < this.flights.capacity(); slot++) {
+			if (this.pendingFlights.contains(slot)) {
+				out.writeInt(slot);
+			}
+		}
+		writeSlots(out, this.etaIndex);
+		writeSlots(out, this.flightsByID);
+		writeSlots(out, this.airlineIndex);
+		writeSlots(out, this.scheduleOrder);
+	}
+
+	// Loads a snapshot into a scheduler that has not run any command yet
+	public void readSnapshot(DataInput in) throws IOException {
+		this.currentTime = in.readInt();
+		this.searchKey = in.readInt();
+		this.rescheduleFrom = in.readInt();
+		this.rescheduleAll = in.readBoolean();
+		this.incremental = in.readBoolean();
+		this.flights.readFrom(in);
+
+		// Whether the last reschedule saw everything is not kept; one more
+		// reschedule is harmless
+		noteChange(ALL_CHANGES);
+
+		int runwayCount = in.readInt();
+		for (int i = 0; i < runwayCount; i++) {
+			int runwayID = in.readInt();
+			this.runways.add(runwayID, in.readInt());
+			addRunwayState(in.readInt());
+			readSlots(in, this.runwayOrders.get(i));
+		}
+
+		int timetableSize = in.readInt();
+		for (int i = 0; i < timetableSize; i++) {
+			this.timetable.insert(in.readInt());
+		}
+		int startQueueSize = in.readInt();
+		for (int i = 0; i < startQueueSize; i++) {
+			this.startQueue.insert(in.readInt());
+		}
+
+		int pendingCount = in.readInt();
+		for (int i = 0; i < pendingCount; i++) {
+			this.pendingFlights.push(in.readInt());
+		}
+		readSlots(in, this.etaIndex);
+		readSlots(in, this.flightsByID);
+		readSlots(in, this.airlineIndex);
+		readSlots(in, this.scheduleOrder);
+	}
+
 	// Internal functions
 
+	// Adds one flight of a batch without rescheduling; false for a duplicate
+	private boolean addBatchFlight(CommandData cmd, int index) {
+		int flightID = cmd.getParam(0);
+		if (this.flights.find(flightID) != -1) {
+			this.batchSlots[index] = -1;
+			return false;
+		}
+
+		int slot = this.flights.add(flightID, cmd.getParam(1), cmd.getParam(2), cmd.getParam(3), cmd.getParam(4));
+		this.flightsByID.add(slot);
+		this.airlineIndex.add(slot);
+		this.pendingFlights.push(slot);
+		noteChange(QUEUE_MUTATED);
+		this.batchSlots[index] = slot;
+		this.batchFlightIDs.put(flightID, index);
+		return true;
+	}
+
+	// In incremental mode a runway's release time is when its last started flight
+	// lands
+	private boolean runwayIdleAt(int time) {
+		for (int i = 0; i < this.runways.getRunwayCount(); i++) {
+			if (this.runwayReleaseTimes[i] <= time) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// A landed flight's slot can be handed out again, so its ETA is taken before
+	private void refreshBatchEtas(int count) {
+		for (int i = 0; i < count; i++) {
+			if (this.batchSlots[i] != -1 && !this.batchLanded[i]) {
+				this.batchEtas[i] = this.flights.getEndTime(this.batchSlots[i]);
+			}
+		}
+	}
+
+	private void markLandedBatchFlights(int count) {
+		for (int i = 0; i < count; i++) {
+			if (this.batchSlots[i] != -1 && !this.flights.isActive(this.batchSlots[i])) {
+				this.batchLanded[i] = true;
+			}
+		}
+	}
+
+	private void recordEtaChange(int flightID, int oldEndTime, int newEndTime) {
+		this.etaUpdates.add(flightID, newEndTime);
+		if (this.batching && !this.batchFlightIDs.containsKey(flightID)
+				&& !this.batchOriginalEtas.containsKey(flightID)) {
+			this.batchOriginalEtas.put(flightID, oldEndTime);
+			this.batchChanges.add(flightID, oldEndTime);
+		}
+	}
+
 	private void updateCurrentTime(int newTime) {
-		if (newTime < this.currentTime)
+		if (newTime < this.currentTime) {
+			// Flights starting exactly now are only promoted by a time update, so the
+			// next reschedule drops them and the full rebuild has to handle it
+			if (this.incremental && !this.scheduleOrder.isEmpty()
+					&& this.flights.getStartTime(this.scheduleOrder.first()) <= this.currentTime) {
+				this.incremental = false;
+				noteChange(QUEUE_MUTATED);
+			}
 			return;
+		}
+		// Landings and starts up to the new time are handled in time order, one event
+		// time at a time, at O(log n) each. The schedule already places every flight,
+		// so nothing has to be rescheduled between events.
+		int event;
+		while ((event = nextEventTime()) != -1 && event <= newTime) {
+			this.currentTime = Math.max(event, this.currentTime);
+			settleCompletions();
+			promoteFlights(newTime);
+		}
 		this.currentTime = newTime;
 
-		// Need to complete all the flights between the old current time and the new
-		// time
-		settleCompletions();
-
-		// Need to start all flights between the old current time and the new time
-		promoteFlights();
+		// Started flights are no longer part of the greedy order
+		if (this.incremental) {
+			retireStartedFlights();
+		}
 
 		// Need to reschedule the unsatisfied flights
 		rescheduleFlights();
 	}
 
 	private void settleCompletions() {
-		ArrayList<Flight> completed = this.timetable.popAllCompleted(currentTime);
+		int slot;
+		while ((slot = this.timetable.popDue(this.currentTime)) != -1) {
+			this.flights.setState(slot, StatusType.COMPLETED);
+			noteChange(RUNWAY_FREED);
+			if (this.stats != null) {
+				this.stats.countCompletion();
+			}
+			this.output.print("Flight ").print(this.flights.getFlightID(slot)).print(" has landed at time ")
+					.print(this.flights.getEndTime(slot)).println();
+
+			this.flights.deactivate(slot);
+			this.flightsByID.remove(slot);
+			this.startQueue.remove(slot);
+			this.etaIndex.remove(slot);
+			this.airlineIndex.remove(slot);
+
+			// A zero-length flight can land before it is retired from the greedy order;
+			// its fields stay readable until the slot is handed out again
+			this.flights.release(slot);
+		}
+	}
+
+	// A flight that lands by the time the update is heading for never shows as in
+	// progress; if the timetable lost it, it stays scheduled
+	private void promoteFlights(int targetTime) {
+		// The start queue only holds scheduled flights, so this touches just the ones
+		// that are due
+		int slot;
+		while ((slot = this.startQueue.popDue(this.currentTime)) != -1) {
+			this.etaIndex.remove(slot);
+			noteChange(FLIGHT_PROMOTED);
+			if (this.stats != null) {
+				this.stats.countPromotion();
+			}
+			if (this.flights.getEndTime(slot) > targetTime) {
+				this.flights.setState(slot, StatusType.IN_PROGRESS);
+			}
+		}
+	}
+
+	private EtaUpdateList rescheduleFlights() {
+		this.etaUpdates.clear();
+
+		// Nothing happened that could move an ETA. The flags are only cleared once a
+		// reschedule went through, so one that failed runs again next time.
+		if (this.pendingChanges == 0)
+			return this.etaUpdates;
+		this.stateEpoch++;
+
+		EtaUpdateList updates;
+		if (!this.incremental || this.runways.getRunwayCount() == 0) {
+			updates = rebuildSchedule();
+		} else {
+			updates = rescheduleIncrementally();
+		}
+		this.pendingChanges = 0;
+		return updates;
+	}
+
+	private EtaUpdateList rescheduleIncrementally() {
+
+		// Merge the newly submitted flights into the greedy order
+		while (!this.pendingFlights.isEmpty()) {
+			int slot = this.pendingFlights.pop();
+			this.scheduleOrder.add(slot);
+			markChanged(slot);
+		}
 
-		for (Flight flight : completed) {
-			flight.setLifeCycleState(StatusType.COMPLETED);
-			this.output.println("Flight " + flight.getFlightID() + " has landed at time " + flight.getEndTime());
+		// Flights before the first changed position keep their assignment
+		int first = -1;
+		if (this.rescheduleAll && !this.scheduleOrder.isEmpty()) {
+			first = this.scheduleOrder.first();
+		} else if (this.rescheduleFrom != -1) {
+			first = this.scheduleOrder.ceiling(this.rescheduleFrom);
+		}
+		this.rescheduleFrom = -1;
+		this.rescheduleAll = false;
 
-			this.activeFlights.remove(flight.getFlightID());
-			this.handles.remove(flight.getFlightID());
+		if (first == -1)
+			return this.etaUpdates;
 
-			HashSet<Integer> airlineFlights = this.airlineIndex.get(flight.getAirlineID());
-			if (airlineFlights != null) {
-				airlineFlights.remove(flight.getFlightID());
+		// Restoring every runway to its state just before the first changed flight
+		for (int i = 0; i < this.runways.getRunwayCount(); i++) {
+			int previous = this.runwayOrders.get(i).lower(first);
+			if (previous != -1) {
+				this.runways.setNextFreeTime(i, this.flights.getEndTime(previous));
+			} else {
+				this.runways.setNextFreeTime(i, Math.max(this.currentTime, this.runwayReleaseTimes[i]));
 			}
 		}
+
+		return reassignFrom(first);
 	}
 
-	private void promoteFlights() {
-		for (Flight flight : this.activeFlights.values()) {
-			if (flight.getLifeCycleState() == StatusType.SCHEDULED &&
-					flight.getStartTime() <= currentTime &&
-					flight.getEndTime() > currentTime) {
-				flight.setLifeCycleState(StatusType.IN_PROGRESS);
+	private EtaUpdateList reassignFrom(int first) {
+
+		for (int slot = first; slot != -1; slot = this.scheduleOrder.next(slot)) {
+			if (this.stats != null) {
+				this.stats.countRescheduled();
+			}
+			int runway = this.runways.peekMin();
+			int runwayID = this.runways.getRunwayID(runway);
+			int startTime = Math.max(this.currentTime, this.runways.getNextFreeTime(runway));
+			int newEndTime = startTime + this.flights.getDuration(slot);
+
+			// Only flights that were ALREADY scheduled sit in the timetable and report
+			// ETA changes
+			boolean wasScheduled = this.flights.getState(slot) == StatusType.SCHEDULED;
+			boolean endTimeChanged = wasScheduled && this.flights.getEndTime(slot) != newEndTime;
+			boolean runwayChanged = !wasScheduled || this.flights.getRunwayID(slot) != runwayID;
+			if (wasScheduled && runwayChanged) {
+				this.runwayOrders.get(this.flights.getRunwayID(slot) - 1).remove(slot);
+			}
+			if (endTimeChanged) {
+				recordEtaChange(this.flights.getFlightID(slot), this.flights.getEndTime(slot), newEndTime);
+			}
+
+			boolean retimed = !wasScheduled || endTimeChanged;
+			if (retimed) {
+				this.etaIndex.remove(slot);
+			}
+			this.flights.setStartTime(slot, startTime);
+			this.flights.setEndTime(slot, newEndTime);
+			this.flights.setRunwayID(slot, runwayID);
+			this.flights.setState(slot, StatusType.SCHEDULED);
+			if (runwayChanged) {
+				this.runwayOrders.get(runwayID - 1).add(slot);
+			}
+			if (retimed) {
+				this.etaIndex.add(slot);
+			}
+			trackStartTime(slot);
+
+			this.runways.replaceMin(newEndTime);
+
+			if (!wasScheduled) {
+				this.timetable.insert(slot);
+			} else if (endTimeChanged) {
+				this.timetable.updateKey(slot);
 			}
 		}
+		return this.etaUpdates;
 	}
 
-	private ArrayList<String> rescheduleFlights() {
+	private EtaUpdateList rebuildSchedule() {
+
+		// Any failure below leaves the incremental state stale
+		this.incremental = false;
 
-		ArrayList<Flight> toReschedule = new ArrayList<>();
-		HashMap<Integer, Integer> oldEndTimes = new HashMap<>();
+		// The greedy order doubles as the sort buffer of the rebuild
+		this.scheduleOrder.clear();
 
 		// Collect all scheduled flights that haven't started yet
-		for (Flight flight : this.activeFlights.values()) {
-			if (flight.getLifeCycleState() == StatusType.SCHEDULED && flight.getStartTime() > this.currentTime) {
-				toReschedule.add(flight);
-				oldEndTimes.put(flight.getFlightID(), flight.getEndTime());
+		for (int slot = this.flightsByID.first(); slot != -1; slot = this.flightsByID.next(slot)) {
+			if (this.flights.getState(slot) == StatusType.SCHEDULED
+					&& this.flights.getStartTime(slot) > this.currentTime) {
+				this.scheduleOrder.add(slot);
 			}
 		}
 
 		// Collect all pending flights
 		while (!this.pendingFlights.isEmpty()) {
-			Flight flight = this.pendingFlights.pop();
-			toReschedule.add(flight);
-			handles.remove(flight.getFlightID());
+			this.scheduleOrder.add(this.pendingFlights.pop());
 		}
 
-		if (toReschedule.isEmpty())
-			return new ArrayList<>();
-
-		toReschedule.sort((flight1, flight2) -> {
-			if (flight1.getPriority() != flight2.getPriority()) {
-				return Integer.compare(flight2.getPriority(), flight1.getPriority());
-			}
-			if (flight1.getSubmitTime() != flight2.getSubmitTime()) {
-				return Integer.compare(flight1.getSubmitTime(), flight2.getSubmitTime());
-			}
-			return Integer.compare(flight1.getFlightID(), flight2.getFlightID());
-		});
+		if (this.scheduleOrder.isEmpty()) {
+			seedIncrementalState();
+			return this.etaUpdates;
+		}
 
 		// Rebuilding the time table and runways
 		rebuildTimeTableAndRunway();
 
 		// Greedily assigning according to the new ETAs
-		ArrayList<String> endTimeUpdates = greedyAssignment(toReschedule, oldEndTimes);
+		EtaUpdateList endTimeUpdates = greedyAssignment();
 
+		seedIncrementalState();
 		return endTimeUpdates;
 	}
 
-	private void rebuildTimeTableAndRunway() {
+	private void seedIncrementalState() {
+
+		this.rescheduleFrom = -1;
+		this.rescheduleAll = false;
 
-		// Rebuild timetable: keep only in-progress flights
-		TimetableMinHeap newTimetable = new TimetableMinHeap();
-		for (Flight flight : this.activeFlights.values()) {
-			if (flight.getLifeCycleState() == StatusType.IN_PROGRESS) {
-				newTimetable.insert(flight);
+		// Runway IDs must map one to one onto handles
+		for (int i = 0; i < this.runways.getRunwayCount(); i++) {
+			if (this.runways.getRunwayID(i) != i + 1) {
+				return;
 			}
+			this.runwayOrders.get(i).clear();
+			this.runwayReleaseTimes[i] = 0;
 		}
-		this.timetable = newTimetable;
 
-		// Rebuild runway pool
-		ArrayList<Runway> runwayList = this.runways.getAllRunways();
-		this.runways.deleteAllRunways();
+		// A scheduled flight left out of the rebuild, two flights in progress on one
+		// runway or a stale timetable entry cannot be reproduced by the incremental
+		// engine
+		int scheduledCount = 0;
+		int inProgressCount = 0;
+		for (int slot = this.flightsByID.first(); slot != -1; slot = this.flightsByID.next(slot)) {
+			StatusType state = this.flights.getState(slot);
+			if (state == StatusType.SCHEDULED) {
+				scheduledCount++;
+			} else if (state == StatusType.IN_PROGRESS) {
+				int index = this.flights.getRunwayID(slot) - 1;
+				if (this.runwayReleaseTimes[index] != 0) {
+					return;
+				}
+				this.runwayReleaseTimes[index] = this.flights.getEndTime(slot);
+				inProgressCount++;
+			}
+		}
+		if (scheduledCount != this.scheduleOrder.size()) {
+			return;
+		}
+		if (this.timetable.size() != inProgressCount + scheduledCount) {
+			return;
+		}
+		for (int i = 0; i < this.timetable.size(); i++) {
+			if (!this.flights.isActive(this.timetable.get(i))) {
+				return;
+			}
+		}
+
+		for (int slot = this.scheduleOrder.first(); slot != -1; slot = this.scheduleOrder.next(slot)) {
+			this.runwayOrders.get(this.flights.getRunwayID(slot) - 1).add(slot);
+		}
+		this.incremental = true;
+	}
 
-		// Initialize runway times to currentTime
-		HashMap<Integer, Integer> runwayTimes = new HashMap<>();
-		for (Runway runway : runwayList) {
-			runwayTimes.put(runway.getRunwayID(), this.currentTime);
+	private void retireStartedFlights() {
+		while (!this.scheduleOrder.isEmpty()
+				&& this.flights.getStartTime(this.scheduleOrder.first()) <= this.currentTime) {
+			int slot = this.scheduleOrder.pollFirst();
+			int index = this.flights.getRunwayID(slot) - 1;
+			this.runwayOrders.get(index).remove(slot);
+			this.runwayReleaseTimes[index] = Math.max(this.runwayReleaseTimes[index], this.flights.getEndTime(slot));
 		}
+	}
+
+	private void unscheduleFlight(int slot) {
+		markChanged(this.scheduleOrder.higher(slot));
+		this.scheduleOrder.remove(slot);
+		this.runwayOrders.get(this.flights.getRunwayID(slot) - 1).remove(slot);
+	}
 
-		// Update runway times based on in-progress flights
-		for (Flight flight : this.activeFlights.values()) {
-			if (flight.getLifeCycleState() == StatusType.IN_PROGRESS) {
-				int rid = flight.getRunwayID();
-				runwayTimes.put(rid, flight.getEndTime());
+	// A canceled flight the timetable still holds keeps its slot until it leaves
+	private void releaseIfUnused(int slot) {
+		if (!this.timetable.contains(slot)) {
+			this.flights.release(slot);
+		}
+	}
+
+	private void trackStartTime(int slot) {
+		if (this.startQueue.contains(slot)) {
+			this.startQueue.updateKey(slot);
+		} else {
+			this.startQueue.insert(slot);
+		}
+	}
+
+	private void writeSlots(DataOutput out, SlotTree tree) throws IOException {
+		out.writeInt(tree.size());
+		for (int slot = tree.first(); slot != -1; slot = tree.next(slot)) {
+			out.writeInt(slot);
+		}
+	}
+
+	private void readSlots(DataInput in, SlotTree tree) throws IOException {
+		int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			tree.add(in.readInt());
+		}
+	}
+
+	private void publishView() {
+		ScheduleView current = this.view;
+		if (current != null && this.viewEpoch == this.stateEpoch) {
+			this.view = current.at(this.commandCount, this.currentTime);
+			return;
+		}
+
+		int activeCount = 0;
+		for (int slot = this.flightsByID.first(); slot != -1; slot = this.flightsByID.next(slot)) {
+			if (this.flights.getState(slot) != StatusType.COMPLETED) {
+				activeCount++;
+			}
+		}
+		int[] flightIDs = new int[activeCount];
+		int[] airlineIDs = new int[activeCount];
+		int[] runwayIDs = new int[activeCount];
+		int[] startTimes = new int[activeCount];
+		int[] endTimes = new int[activeCount];
+		int i = 0;
+		for (int slot = this.flightsByID.first(); slot != -1; slot = this.flightsByID.next(slot)) {
+			if (this.flights.getState(slot) != StatusType.COMPLETED) {
+				flightIDs[i] = this.flights.getFlightID(slot);
+				airlineIDs[i] = this.flights.getAirlineID(slot);
+				runwayIDs[i] = this.flights.getRunwayID(slot);
+				startTimes[i] = this.flights.getStartTime(slot);
+				endTimes[i] = this.flights.getEndTime(slot);
+				i++;
 			}
 		}
 
-		// Insert runways back with updated times
-		for (Runway runway : runwayList) {
-			runway.setNextFreeTime(runwayTimes.get(runway.getRunwayID()));
-			this.runways.insert(runway);
+		int scheduledCount = this.etaIndex.size();
+		int[] scheduleIDs = new int[scheduledCount];
+		int[] scheduleStarts = new int[scheduledCount];
+		int[] scheduleEnds = new int[scheduledCount];
+		i = 0;
+		for (int slot = this.etaIndex.first(); slot != -1; slot = this.etaIndex.next(slot)) {
+			scheduleIDs[i] = this.flights.getFlightID(slot);
+			scheduleStarts[i] = this.flights.getStartTime(slot);
+			scheduleEnds[i] = this.flights.getEndTime(slot);
+			i++;
 		}
+
+		this.view = new ScheduleView(this.commandCount, this.stateEpoch, this.currentTime, flightIDs, airlineIDs,
+				runwayIDs, startTimes, endTimes, scheduleIDs, scheduleStarts, scheduleEnds);
+		this.viewEpoch = this.stateEpoch;
 	}
 
-	private ArrayList<String> greedyAssignment(List<Flight> toReschedule, HashMap<Integer, Integer> oldEndTimes) {
+	private void noteChange(int change) {
+		this.pendingChanges |= change;
+		this.stateEpoch++;
+	}
 
-		ArrayList<String> endTimeUpdates = new ArrayList<>();
+	private void markChanged(int slot) {
+		if (slot != -1 && (this.rescheduleFrom == -1 || compareByPriority(slot, this.rescheduleFrom) < 0)) {
+			this.rescheduleFrom = slot;
+		}
+	}
 
-		for (Flight flight : toReschedule) {
-			Runway runway = this.runways.extractMin();
-			int startTime = Math.max(this.currentTime, runway.getNextFreeTime());
-			int newEndTime = startTime + flight.getDuration();
+	private void addRunwayState(int releaseTime) {
+		// A flight is on one runway at a time, so all runway orders share their links
+		this.runwayOrders.add(this.runwayOrders.isEmpty() ? new SlotTree(this::compareByPriority)
+				: this.runwayOrders.get(0).shareLinks());
+		int handle = this.runwayOrders.size() - 1;
+		if (handle == this.runwayReleaseTimes.length) {
+			this.runwayReleaseTimes = Arrays.copyOf(this.runwayReleaseTimes, handle * 2);
+		}
+		this.runwayReleaseTimes[handle] = releaseTime;
+		if (handle + 1 == this.rebuildRunwayTimes.length) {
+			this.rebuildRunwayTimes = Arrays.copyOf(this.rebuildRunwayTimes, handle * 2 + 1);
+			this.rebuildClaims = Arrays.copyOf(this.rebuildClaims, handle * 2 + 1);
+		}
+	}
 
-			flight.setStartTime(startTime);
-			flight.setEndTime(newEndTime);
-			flight.setRunwayID(runway.getRunwayID());
-			flight.setLifeCycleState(StatusType.SCHEDULED);
+	private int compareByEndTime(int slot1, int slot2) {
+		int endTime1 = this.flights.getEndTime(slot1);
+		int endTime2 = this.flights.getEndTime(slot2);
+		if (endTime1 != endTime2) {
+			return Integer.compare(endTime1, endTime2);
+		}
+		return Integer.compare(this.flights.getFlightID(slot1), this.flights.getFlightID(slot2));
+	}
 
-			runway.setNextFreeTime(newEndTime);
-			this.runways.insert(runway);
+	private int compareByPriority(int slot1, int slot2) {
+		int priority1 = this.flights.getPriority(slot1);
+		int priority2 = this.flights.getPriority(slot2);
+		if (priority1 != priority2) {
+			return Integer.compare(priority2, priority1);
+		}
+		int submitTime1 = this.flights.getSubmitTime(slot1);
+		int submitTime2 = this.flights.getSubmitTime(slot2);
+		if (submitTime1 != submitTime2) {
+			return Integer.compare(submitTime1, submitTime2);
+		}
+		return Integer.compare(this.flights.getFlightID(slot1), this.flights.getFlightID(slot2));
+	}
 
-			this.timetable.insert(flight);
+	private int compareByFlightID(int slot1, int slot2) {
+		return Integer.compare(this.flights.getFlightID(slot1), this.flights.getFlightID(slot2));
+	}
 
-			// Only report ETA changes for flights that were ALREADY scheduled
-			if (oldEndTimes.containsKey(flight.getFlightID())) {
-				int oldEndTime = oldEndTimes.get(flight.getFlightID());
-				if (oldEndTime != newEndTime) {
-					endTimeUpdates.add(flight.getFlightID() + ": " + newEndTime);
+	private int compareByAirline(int slot1, int slot2) {
+		int airlineID1 = this.flights.getAirlineID(slot1);
+		int airlineID2 = this.flights.getAirlineID(slot2);
+		if (airlineID1 != airlineID2) {
+			return Integer.compare(airlineID1, airlineID2);
+		}
+		return Integer.compare(this.flights.getFlightID(slot1), this.flights.getFlightID(slot2));
+	}
+
+	private void rebuildTimeTableAndRunway() {
+
+		// Rebuild timetable: keep only in-progress flights. Canceled flights the old
+		// timetable still held are released for good.
+		for (int i = 0; i < this.timetable.size(); i++) {
+			int slot = this.timetable.get(i);
+			if (!this.flights.isActive(slot)) {
+				this.flights.release(slot);
+			}
+		}
+		this.timetable.clear();
+		for (int slot = this.flightsByID.first(); slot != -1; slot = this.flightsByID.next(slot)) {
+			if (this.flights.getState(slot) == StatusType.IN_PROGRESS) {
+				this.timetable.insert(slot);
+			}
+		}
+
+		// Initialize runway times to currentTime; a second Initialize repeats IDs, and
+		// runways sharing one get the same time
+		int[] runwayTimes = this.rebuildRunwayTimes;
+		long[] claims = this.rebuildClaims;
+		int runwayCount = this.runways.getRunwayCount();
+		Arrays.fill(runwayTimes, 0, runwayCount + 1, this.currentTime);
+		Arrays.fill(claims, 0, runwayCount + 1, -1);
+
+		// Update runway times based on in-progress flights. When two of them claim one
+		// runway, the flight visited last in the old HashMap order decides.
+		for (int slot = this.flightsByID.first(); slot != -1; slot = this.flightsByID.next(slot)) {
+			if (this.flights.getState(slot) == StatusType.IN_PROGRESS) {
+				int rid = this.flights.getRunwayID(slot);
+				long order = this.flights.legacyOrder(slot);
+				if (order > claims[rid]) {
+					claims[rid] = order;
+					runwayTimes[rid] = this.flights.getEndTime(slot);
 				}
 			}
 		}
-		return endTimeUpdates;
+
+		// Update the runway pool in place
+		for (int i = 0; i < runwayCount; i++) {
+			this.runways.setNextFreeTime(i, runwayTimes[this.runways.getRunwayID(i)]);
+		}
 	}
 
-	private void printAllChangedETAs(ArrayList<String> endTimeUpdates) {
+	private EtaUpdateList greedyAssignment() {
+
+		for (int slot = this.scheduleOrder.first(); slot != -1; slot = this.scheduleOrder.next(slot)) {
+			if (this.stats != null) {
+				this.stats.countRescheduled();
+			}
+			int runway = this.runways.peekMin();
+			int startTime = Math.max(this.currentTime, this.runways.getNextFreeTime(runway));
+			int newEndTime = startTime + this.flights.getDuration(slot);
+
+			// Only report ETA changes for flights that were ALREADY scheduled
+			boolean wasScheduled = this.flights.getState(slot) == StatusType.SCHEDULED;
+			int oldEndTime = this.flights.getEndTime(slot);
+
+			boolean retimed = oldEndTime != newEndTime;
+			if (retimed) {
+				this.etaIndex.remove(slot);
+			}
+			this.flights.setStartTime(slot, startTime);
+			this.flights.setEndTime(slot, newEndTime);
+			this.flights.setRunwayID(slot, this.runways.getRunwayID(runway));
+			this.flights.setState(slot, StatusType.SCHEDULED);
+			if (retimed) {
+				this.etaIndex.add(slot);
+			}
+			trackStartTime(slot);
+
+			this.runways.replaceMin(newEndTime);
+
+			this.timetable.insert(slot);
+
+			if (wasScheduled && retimed) {
+				recordEtaChange(this.flights.getFlightID(slot), oldEndTime, newEndTime);
+			}
+		}
+		return this.etaUpdates;
+	}
+
+	private void printAllChangedETAs(EtaUpdateList endTimeUpdates) {
 
 		if (!endTimeUpdates.isEmpty()) {
-			endTimeUpdates.sort((a, b) -> {
-				int id1 = Integer.parseInt(a.split(":")[0]);
-				int id2 = Integer.parseInt(b.split(":")[0]);
-				return Integer.compare(id1, id2);
-			});
-			this.output.println("Updated ETAs: [" + String.join(", ", endTimeUpdates) + "]");
+			if (this.stats != null) {
+				this.stats.countEtaChanges(endTimeUpdates.size());
+			}
+			endTimeUpdates.sortByFlightID();
+			this.output.print("Updated ETAs: [");
+			for (int i = 0; i < endTimeUpdates.size(); i++) {
+				if (i > 0) {
+					this.output.print(", ");
+				}
+				this.output.print(endTimeUpdates.getFlightID(i)).print(": ").print(endTimeUpdates.getEndTime(i));
+			}
+			this.output.println("]");
 		}
 	}
 }
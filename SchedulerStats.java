@@ -0,0 +1,122 @@
+import java.io.PrintStream;
+
+// Per-command instrumentation of a Scheduler. For every CommandType it keeps a
+// latency histogram and totals of the work the commands did: flights pulled into
+// a reschedule, ETA changes printed, landings settled and flights started. All
+// memory is allocated up front, so recording allocates nothing; only report()
+// builds strings.
+//
+// The report goes to its own stream, never to the scheduler output. It is
+// written when Quit runs and, if an interval is set, every that many commands.
+public class SchedulerStats {
+	private static final CommandType[] TYPES = CommandType.values();
+
+	private PrintStream report;
+	private int reportInterval;
+
+	private LatencyHistogram[] latencies;
+	private long[] rescheduled;
+	private long[] etaChanges;
+	private long[] completions;
+	private long[] promotions;
+	private long commandCount;
+
+	// The command being measured
+	private CommandType currentType;
+	private long startNanos;
+	private int currentRescheduled;
+	private int currentEtaChanges;
+	private int currentCompletions;
+	private int currentPromotions;
+
+	// An interval of 0 only reports on Quit
+	public SchedulerStats(PrintStream report, int reportInterval) {
+		this.report = report;
+		this.reportInterval = reportInterval;
+		this.latencies = new LatencyHistogram[TYPES.length];
+		for (int i = 0; i < TYPES.length; i++) {
+			this.latencies[i] = new LatencyHistogram();
+		}
+		this.rescheduled = new long[TYPES.length];
+		this.etaChanges = new long[TYPES.length];
+		this.completions = new long[TYPES.length];
+		this.promotions = new long[TYPES.length];
+		this.commandCount = 0;
+		this.currentType = null;
+	}
+
+	// ================== External functions of Scheduler Stats====================
+
+	public void beginCommand(CommandType type) {
+		this.currentType = type;
+		this.currentRescheduled = 0;
+		this.currentEtaChanges = 0;
+		this.currentCompletions = 0;
+		this.currentPromotions = 0;
+		this.startNanos = System.nanoTime();
+	}
+
+	public void endCommand() {
+		long elapsed = System.nanoTime() - this.startNanos;
+		if (this.currentType == null)
+			return;
+
+		int type = this.currentType.ordinal();
+		this.latencies[type].record(elapsed);
+		this.rescheduled[type] += this.currentRescheduled;
+		this.etaChanges[type] += this.currentEtaChanges;
+		this.completions[type] += this.currentCompletions;
+		this.promotions[type] += this.currentPromotions;
+		this.commandCount++;
+
+		boolean quit = this.currentType == CommandType.QUIT;
+		this.currentType = null;
+		if (quit || (this.reportInterval > 0 && this.commandCount % this.reportInterval == 0)) {
+			report();
+		}
+	}
+
+	// Counters of the command being measured; the scheduler calls these whether or
+	// not a command is open, and they are dropped if none is
+	public void countRescheduled() {
+		this.currentRescheduled++;
+	}
+
+	public void countEtaChanges(int count) {
+		this.currentEtaChanges += count;
+	}
+
+	public void countCompletion() {
+		this.currentCompletions++;
+	}
+
+	public void countPromotion() {
+		this.currentPromotions++;
+	}
+
+	public long getCommandCount() {
+		return this.commandCount;
+	}
+
+	public LatencyHistogram getLatencies(CommandType type) {
+		return this.latencies[type.ordinal()];
+	}
+
+	public void report() {
+		this.report.println("Scheduler stats after " + this.commandCount + " commands (latencies in microseconds)");
+		this.report.println(String.format("%-14s %9s %9s %9s %9s %9s %11s %10s %11s %10s", "command", "count",
+				"mean", "p50", "p99", "max", "rescheduled", "etaChanges", "completions", "promotions"));
+		for (int i = 0; i < TYPES.length; i++) {
+			LatencyHistogram latency = this.latencies[i];
+			if (latency.getCount() == 0)
+				continue;
+
+			String name = TYPES[i].getCommandName() != null ? TYPES[i].getCommandName() : "Unknown";
+			this.report.println(String.format("%-14s %9d %9.1f %9.1f %9.1f %9.1f %11d %10d %11d %10d", name,
+					latency.getCount(), latency.getMean() / 1000, latency.getPercentile(0.5) / 1000.0,
+					latency.getPercentile(0.99) / 1000.0, latency.getMax() / 1000.0, this.rescheduled[i],
+					this.etaChanges[i], this.completions[i], this.promotions[i]));
+		}
+		this.report.flush();
+	}
+}
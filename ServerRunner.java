@@ -0,0 +1,586 @@
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Serves the command syntax over a local socket, so one JVM takes batch after
+// batch of commands instead of starting once per input file. Clients connect over
+// TCP on the loopback interface or over a Unix-domain socket and send command
+// lines; each gets back the output of its own commands, in order. All clients
+// share one scheduler, which applies commands in the order they arrive.
+//
+// One thread runs a selector over every connection with non-blocking I/O: it
+// accepts, splits and parses lines and writes responses. A second thread applies
+// the commands. Quit is answered as usual and then closes that client's
+// connection, as does a client closing its sending side; the server keeps running.
+//
+// PeekActive() and PeekSchedule(t1, t2) answer like their Print counterparts, but
+// from the scheduler's latest ScheduleView on the selector thread, so the
+// scheduler thread never formats them. A peek waits for the client's earlier
+// commands to be answered, and nothing after it is read until it is, so each
+// client still gets its output in order. The answer starts with a line naming the
+// command count and time of the view; other clients' commands may be in it too.
+public class ServerRunner {
+	private static final int COMMAND_RING_SIZE = 4096;
+	private static final int READ_BUFFER_SIZE = 1 << 16;
+	private static final int MAX_LINE = 1 << 16;
+
+	// A client that lets this much output pile up is not read from until it catches up
+	private static final long MAX_PENDING_OUTPUT = 1 << 22;
+
+	// Queued after a client's last response to close its connection
+	private static final ByteBuffer CLOSE = ByteBuffer.allocate(0);
+
+	private SocketAddress address;
+	private ServerSocketChannel server;
+	private Selector selector;
+	private SpscRing<Request> requests;
+	private ConcurrentLinkedQueue<Client> writable;
+	private ArrayList<Client> clients;
+	private CommandParser parser;
+	private ByteBuffer readBuffer;
+	private CommandData peek;
+	private ByteArrayOutputStream buffer;
+	private OutputSink sink;
+	private Scheduler scheduler;
+	private volatile boolean running;
+	private CountDownLatch stopped;
+
+	// Clients with input the full ring could not take, in the order they ran into it
+	private ArrayDeque<Client> waiting;
+
+	// Raised by the selector thread when the ring is full; the scheduler thread
+	// wakes it once it has freed an entry
+	private volatile boolean ringFull;
+	private long stalls;
+
+	// "unix:<path>" for a Unix-domain socket, otherwise a TCP port on the loopback
+	// interface; port 0 picks a free one
+	public ServerRunner(String address, PendingQueueType queueType, SchedulerStats stats) throws IOException {
+		this(address, queueType, stats, COMMAND_RING_SIZE);
+	}
+
+	// With a given ring size, so tests can make the ring run full
+	ServerRunner(String address, PendingQueueType queueType, SchedulerStats stats, int ringSize) throws IOException {
+		if (address.startsWith("unix:")) {
+			this.address = UnixDomainSocketAddress.of(address.substring("unix:".length()));
+			this.server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+		} else {
+			this.address = new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(address));
+			this.server = ServerSocketChannel.open();
+		}
+		this.server.bind(this.address);
+		this.server.configureBlocking(false);
+		this.selector = Selector.open();
+		this.server.register(this.selector, SelectionKey.OP_ACCEPT);
+
+		this.requests = new SpscRing<>(ringSize, Request::new);
+		this.writable = new ConcurrentLinkedQueue<>();
+		this.clients = new ArrayList<>();
+		this.waiting = new ArrayDeque<>();
+		this.ringFull = false;
+		this.stalls = 0;
+		this.parser = new CommandParser();
+		this.readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+		this.peek = new CommandData(CommandType.UNKNOWN, new int[5], null);
+
+		// Used by the scheduler thread from here on, apart from getView()
+		this.buffer = new ByteArrayOutputStream(1 << 12);
+		this.sink = new OutputSink(this.buffer);
+		this.scheduler = new Scheduler(this.sink, queueType);
+		this.scheduler.setStats(stats);
+		this.scheduler.enableViews();
+		this.running = true;
+		this.stopped = new CountDownLatch(1);
+	}
+
+	// ====== External functions of Server Runner ======
+
+	// The bound address, with the actual port when port 0 was asked for
+	public SocketAddress getAddress() throws IOException {
+		return this.server.getLocalAddress();
+	}
+
+	// Serves until close() is called
+	public void run() throws IOException {
+		Thread scheduler = new Thread(this::schedule, "server-scheduler");
+		scheduler.setDaemon(true);
+		scheduler.start();
+
+		try {
+			while (this.running) {
+				this.selector.select();
+
+				Client client;
+				while ((client = this.writable.poll()) != null) {
+					write(client);
+					resumePeek(client);
+				}
+				resumeWaiting();
+
+				Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					if (!key.isValid())
+						continue;
+
+					if (key.isAcceptable()) {
+						accept();
+						continue;
+					}
+					client = (Client) key.attachment();
+					if (key.isReadable()) {
+						read(client);
+					}
+					if (key.isValid() && key.isWritable()) {
+						write(client);
+					}
+				}
+			}
+		} finally {
+			try {
+				shutDown(scheduler);
+			} finally {
+				this.stopped.countDown();
+			}
+		}
+	}
+
+	// Stops serving; commands already received are still applied. Safe to call
+	// from any thread, and returns without waiting for run() to finish.
+	public void close() {
+		this.running = false;
+		this.selector.wakeup();
+	}
+
+	// Waits until run() has returned
+	public void awaitStopped() throws InterruptedException {
+		this.stopped.await();
+	}
+
+	// Times a client was stalled by a full ring; read it after awaitStopped()
+	long getStallCount() {
+		return this.stalls;
+	}
+
+	// ====== Internal functions of Server Runner ======
+
+	// Lets the scheduler apply what it already has, then closes every channel and
+	// removes the socket file
+	private void shutDown(Thread scheduler) throws IOException {
+		this.requests.close();
+		try {
+			scheduler.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		for (Client client : this.clients) {
+			client.channel.close();
+		}
+		this.selector.close();
+		this.server.close();
+		if (this.address instanceof UnixDomainSocketAddress) {
+			Files.deleteIfExists(((UnixDomainSocketAddress) this.address).getPath());
+		}
+	}
+
+	private void accept() throws IOException {
+		SocketChannel channel;
+		while ((channel = this.server.accept()) != null) {
+			channel.configureBlocking(false);
+			Client client = new Client(channel);
+			client.key = channel.register(this.selector, SelectionKey.OP_READ, client);
+			this.clients.add(client);
+		}
+	}
+
+	// Feeds the client's input to the scheduler until the input runs dry, the client
+	// quits or the ring is full. In the last case the rest of the input stays on the
+	// client and reading resumes once the scheduler has made room.
+	private void read(Client client) {
+		// A stalled client only goes on from resumeWaiting(), a peeking one from
+		// resumePeek()
+		if (client.stalled || client.peeking)
+			return;
+
+		try {
+			if (client.pendingLine != null) {
+				if (!submit(client, client.pendingLine)) {
+					stall(client);
+					return;
+				}
+				client.pendingLine = null;
+			}
+			if (client.backlog != null) {
+				ByteBuffer backlog = client.backlog;
+				client.backlog = null;
+				if (!consume(client, backlog))
+					return;
+			}
+
+			while (!client.quitting && !client.endOfInput) {
+				this.readBuffer.clear();
+				int read = client.channel.read(this.readBuffer);
+				if (read == -1) {
+					client.endOfInput = true;
+					break;
+				}
+				if (read == 0)
+					break;
+
+				this.readBuffer.flip();
+				if (!consume(client, this.readBuffer))
+					return;
+			}
+
+			// A client that stops sending still gets the rest of its output, as if it
+			// had sent Quit; a last line without a newline still counts
+			if (client.endOfInput && !client.quitting) {
+				if (client.lineLength > 0) {
+					String line = new String(client.line, 0, client.lineLength, Charset.defaultCharset());
+					client.lineLength = 0;
+					if (!submit(client, line)) {
+						client.pendingLine = line;
+						stall(client);
+						return;
+					}
+				}
+				if (!hangUp(client)) {
+					stall(client);
+					return;
+				}
+			}
+			updateInterest(client);
+
+		} catch (IOException e) {
+			disconnect(client);
+		}
+	}
+
+	// Splits lines out of the bytes and submits them. False when the client was
+	// stalled by a full ring or disconnected; the unread bytes are kept on the client.
+	private boolean consume(Client client, ByteBuffer bytes) {
+		while (bytes.hasRemaining() && !client.quitting) {
+			byte b = bytes.get();
+			if (b == '\n') {
+				String line = new String(client.line, 0, client.lineLength, Charset.defaultCharset());
+				client.lineLength = 0;
+				if (!submit(client, line)) {
+					client.pendingLine = line;
+					if (bytes.hasRemaining()) {
+						client.backlog = ByteBuffer.allocate(bytes.remaining()).put(bytes).flip();
+					}
+					stall(client);
+					return false;
+				}
+			} else if (!client.append(b)) {
+				disconnect(client);
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Parses on this thread and hands the command to the scheduler in arrival order.
+	// False when the ring is full.
+	private boolean submit(Client client, String line) {
+		line = line.trim();
+		if (line.isEmpty() || line.startsWith("//"))
+			return true;
+		if (line.startsWith("Peek") && decodePeek(line)) {
+			// Set before the check, so the scheduler thread either sees it or has
+			// already counted the client's last command
+			client.peeking = true;
+			if (client.answered != client.submitted)
+				return false;
+			client.peeking = false;
+			answerPeek(client);
+			return true;
+		}
+
+		Request request = claimRequest();
+		if (request == null)
+			return false;
+		request.client = client;
+		this.parser.decode(line, 0, line.length(), request.command);
+		// Nothing after Quit is read from this client
+		if (request.command.getType() == CommandType.QUIT) {
+			client.quitting = true;
+		}
+		client.submitted++;
+		this.requests.publish();
+		return true;
+	}
+
+	// Closes the connection once the commands already sent have been answered
+	private boolean hangUp(Client client) {
+		Request request = claimRequest();
+		if (request == null)
+			return false;
+		request.client = client;
+		request.hangUp = true;
+		client.quitting = true;
+		this.requests.publish();
+		return true;
+	}
+
+	// Decodes PeekActive() and PeekSchedule(t1, t2) as their Print counterparts.
+	// False for any other line, which then goes to the scheduler like every command.
+	private boolean decodePeek(String line) {
+		String command = "Print" + line.substring("Peek".length());
+		this.parser.decode(command, 0, command.length(), this.peek);
+		CommandType type = this.peek.getType();
+		return type == CommandType.PRINT_ACTIVE || type == CommandType.PRINT_SCHEDULE;
+	}
+
+	// Answers the decoded peek from the latest view, which already has every
+	// command of this client applied
+	private void answerPeek(Client client) {
+		ScheduleView view = this.scheduler.getView();
+		StringBuilder answer = new StringBuilder();
+		answer.append("View after ").append(view.getVersion()).append(" commands, time ")
+				.append(view.getCurrentTime()).append(System.lineSeparator());
+		if (this.peek.getType() == CommandType.PRINT_ACTIVE) {
+			answer.append(view.formatActive());
+		} else {
+			answer.append(view.formatSchedule(this.peek.getParam(0), this.peek.getParam(1)));
+		}
+		byte[] bytes = answer.toString().getBytes(Charset.defaultCharset());
+		client.pendingOutput.addAndGet(bytes.length);
+		client.responses.add(ByteBuffer.wrap(bytes));
+	}
+
+	// Goes on with a client whose peek waited for its earlier commands, once the
+	// scheduler thread has answered the last of them
+	private void resumePeek(Client client) {
+		if (client.peeking && !client.closed && client.answered == client.submitted) {
+			client.peeking = false;
+			read(client);
+		}
+	}
+
+	private Request claimRequest() {
+		Request request = this.requests.tryClaim();
+		if (request == null) {
+			// Raised before the second try, so an entry freed after it wakes this thread
+			this.ringFull = true;
+			request = this.requests.tryClaim();
+		}
+		return request;
+	}
+
+	// Stops reading from the client until the ring has room again, or until its
+	// earlier commands are answered when a peek waits for them
+	private void stall(Client client) {
+		if (!client.stalled && !client.peeking) {
+			client.stalled = true;
+			this.stalls++;
+			this.waiting.add(client);
+		}
+		updateInterest(client);
+	}
+
+	// Lets stalled clients go on, oldest first, for as long as the ring has room
+	private void resumeWaiting() {
+		Client client;
+		while ((client = this.waiting.peek()) != null) {
+			this.waiting.poll();
+			client.stalled = false;
+			if (!client.closed) {
+				read(client);
+				if (client.stalled)
+					return;
+			}
+		}
+	}
+
+	private void write(Client client) {
+		if (client.closed) {
+			client.responses.clear();
+			return;
+		}
+
+		try {
+			ByteBuffer response;
+			while ((response = client.responses.peek()) != null) {
+				if (response == CLOSE) {
+					disconnect(client);
+					return;
+				}
+				int written = client.channel.write(response);
+				client.pendingOutput.addAndGet(-written);
+				if (response.hasRemaining())
+					break;
+				client.responses.poll();
+			}
+			updateInterest(client);
+
+		} catch (IOException e) {
+			disconnect(client);
+		}
+	}
+
+	// Reads while the client keeps up with its output, writes while output is queued
+	private void updateInterest(Client client) {
+		if (client.closed)
+			return;
+
+		int ops = 0;
+		if (!client.quitting && !client.endOfInput && !client.stalled && !client.peeking
+				&& client.pendingOutput.get() < MAX_PENDING_OUTPUT) {
+			ops |= SelectionKey.OP_READ;
+		}
+		if (!client.responses.isEmpty()) {
+			ops |= SelectionKey.OP_WRITE;
+		}
+		client.key.interestOps(ops);
+	}
+
+	private void disconnect(Client client) {
+		if (client.closed)
+			return;
+
+		client.closed = true;
+		client.key.cancel();
+		this.clients.remove(client);
+		try {
+			client.channel.close();
+		} catch (IOException e) {
+			// Already gone
+		}
+	}
+
+	// Runs on the scheduler thread. Each command's output is cut off once it has
+	// run and queued for the client that sent it.
+	private void schedule() {
+		ByteArrayOutputStream buffer = this.buffer;
+		try (OutputSink sink = this.sink) {
+			Request request;
+			while ((request = this.requests.take()) != null) {
+				boolean hangUp = request.hangUp;
+				boolean quit = hangUp || request.command.getType() == CommandType.QUIT;
+				if (!hangUp) {
+					gatorAirTrafficScheduler.executeCommand(request.command, this.scheduler, sink);
+					sink.flush();
+				}
+				Client client = request.client;
+				request.client = null;
+				request.hangUp = false;
+				releaseRequest();
+
+				if (buffer.size() > 0) {
+					client.pendingOutput.addAndGet(buffer.size());
+					client.responses.add(ByteBuffer.wrap(buffer.toByteArray()));
+				}
+				if (quit) {
+					client.responses.add(CLOSE);
+				}
+				// Counted once the output is queued, so a waiting peek goes after it
+				boolean resume = false;
+				if (!hangUp) {
+					client.answered++;
+					resume = client.peeking;
+				}
+				if (buffer.size() > 0 || quit || resume) {
+					this.writable.add(client);
+					this.selector.wakeup();
+				}
+				buffer.reset();
+			}
+		}
+	}
+
+	// Frees the entry and wakes the selector thread if it ran into a full ring
+	private void releaseRequest() {
+		this.requests.release();
+		if (this.ringFull) {
+			this.ringFull = false;
+			this.selector.wakeup();
+		}
+	}
+
+	// A command on its way from the selector thread to the scheduler thread
+	private static class Request {
+		private Client client;
+		private CommandData command;
+
+		// No command; the client has stopped sending
+		private boolean hangUp;
+
+		Request() {
+			this.command = new CommandData(CommandType.UNKNOWN, new int[5], null);
+			this.hangUp = false;
+		}
+	}
+
+	private static class Client {
+		private SocketChannel channel;
+		private SelectionKey key;
+
+		// Owned by the selector thread
+		private byte[] line;
+		private int lineLength;
+		private boolean quitting;
+		private boolean endOfInput;
+		private boolean closed;
+
+		// Input held back while the ring is full: a line not yet submitted and the
+		// bytes read after it
+		private boolean stalled;
+		private String pendingLine;
+		private ByteBuffer backlog;
+
+		// Filled by the scheduler thread, drained by the selector thread
+		private ConcurrentLinkedQueue<ByteBuffer> responses;
+		private AtomicLong pendingOutput;
+
+		// Commands handed to the scheduler and commands it has answered; a peek
+		// waits, with reading paused, until the two are equal. Only the scheduler
+		// thread writes answered.
+		private long submitted;
+		private volatile long answered;
+		private volatile boolean peeking;
+
+		Client(SocketChannel channel) {
+			this.channel = channel;
+			this.line = new byte[256];
+			this.lineLength = 0;
+			this.quitting = false;
+			this.endOfInput = false;
+			this.closed = false;
+			this.stalled = false;
+			this.pendingLine = null;
+			this.backlog = null;
+			this.responses = new ConcurrentLinkedQueue<>();
+			this.pendingOutput = new AtomicLong();
+			this.submitted = 0;
+			this.answered = 0;
+			this.peeking = false;
+		}
+
+		// False once the line is longer than any command
+		boolean append(byte b) {
+			if (this.lineLength == this.line.length) {
+				if (this.lineLength == MAX_LINE)
+					return false;
+				this.line = Arrays.copyOf(this.line, Math.min(this.lineLength * 2, MAX_LINE));
+			}
+			this.line[this.lineLength++] = b;
+			return true;
+		}
+	}
+}
@@ -0,0 +1,437 @@
+import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
+
+// Red-black tree of flight slots ordered by a comparator over slots. The tree is
+// intrusive: the links live in arrays indexed by slot, so adding and removing a
+// flight allocates nothing. Trees built with shareLinks use one set of link arrays,
+// which works as long as a slot is in at most one of them at a time.
+public class SlotTree {
+	private static final int NIL = 0;
+	private static final int UNLINKED = -1;
+
+	private IntBinaryOperator comparator;
+	private Links links;
+	private int root;
+	private int size;
+	private int[] stack;
+
+	public SlotTree(IntBinaryOperator comparator) {
+		this(comparator, new Links());
+	}
+
+	private SlotTree(IntBinaryOperator comparator, Links links) {
+		this.comparator = comparator;
+		this.links = links;
+		this.root = NIL;
+		this.size = 0;
+		this.stack = new int[64];
+	}
+
+	// A new empty tree with the same ordering that shares this tree's link arrays
+	public SlotTree shareLinks() {
+		return new SlotTree(this.comparator, this.links);
+	}
+
+	// ================== External functions of Slot Tree====================
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	// True if the slot is in this tree or in one that shares its links
+	public boolean contains(int slot) {
+		int node = slot + 1;
+		return node < this.links.parent.length && this.links.parent[node] != UNLINKED;
+	}
+
+	// Returns false, like a TreeSet, if an equal slot is already in the tree
+	public boolean add(int slot) {
+		int z = slot + 1;
+		this.links.ensureCapacity(z);
+		int[] left = this.links.left;
+		int[] right = this.links.right;
+
+		int y = NIL;
+		int x = this.root;
+		int cmp = 0;
+		while (x != NIL) {
+			y = x;
+			cmp = this.comparator.applyAsInt(slot, x - 1);
+			if (cmp < 0) {
+				x = left[x];
+			} else if (cmp > 0) {
+				x = right[x];
+			} else {
+				return false;
+			}
+		}
+
+		this.links.parent[z] = y;
+		if (y == NIL) {
+			this.root = z;
+		} else if (cmp < 0) {
+			left[y] = z;
+		} else {
+			right[y] = z;
+		}
+		left[z] = NIL;
+		right[z] = NIL;
+		this.links.red[z] = true;
+		insertFixup(z);
+		this.size++;
+		return true;
+	}
+
+	// Removes the slot itself, so its key may already have changed
+	public boolean remove(int slot) {
+		if (!contains(slot))
+			return false;
+
+		delete(slot + 1);
+		this.size--;
+		return true;
+	}
+
+	public int first() {
+		return this.root == NIL ? -1 : minimum(this.root) - 1;
+	}
+
+	public int pollFirst() {
+		int slot = first();
+		if (slot != -1) {
+			remove(slot);
+		}
+		return slot;
+	}
+
+	// In-order successor of a slot in the tree, or -1
+	public int next(int slot) {
+		int[] parent = this.links.parent;
+		int[] right = this.links.right;
+
+		int x = slot + 1;
+		if (right[x] != NIL) {
+			return minimum(right[x]) - 1;
+		}
+		int y = parent[x];
+		while (y != NIL && x == right[y]) {
+			x = y;
+			y = parent[y];
+		}
+		return y - 1;
+	}
+
+	// Smallest slot not ordered before key; key itself need not be in the tree
+	public int ceiling(int key) {
+		int best = NIL;
+		int x = this.root;
+		while (x != NIL) {
+			int cmp = this.comparator.applyAsInt(key, x - 1);
+			if (cmp <= 0) {
+				best = x;
+				if (cmp == 0)
+					break;
+				x = this.links.left[x];
+			} else {
+				x = this.links.right[x];
+			}
+		}
+		return best - 1;
+	}
+
+	// Smallest slot ordered after key
+	public int higher(int key) {
+		int best = NIL;
+		int x = this.root;
+		while (x != NIL) {
+			if (this.comparator.applyAsInt(key, x - 1) < 0) {
+				best = x;
+				x = this.links.left[x];
+			} else {
+				x = this.links.right[x];
+			}
+		}
+		return best - 1;
+	}
+
+	// Largest slot ordered before key
+	public int lower(int key) {
+		int best = NIL;
+		int x = this.root;
+		while (x != NIL) {
+			if (this.comparator.applyAsInt(key, x - 1) > 0) {
+				best = x;
+				x = this.links.right[x];
+			} else {
+				x = this.links.left[x];
+			}
+		}
+		return best - 1;
+	}
+
+	public void clear() {
+		// Every node has to be marked unlinked, since contains reads the links
+		int top = 0;
+		if (this.root != NIL) {
+			this.stack[top++] = this.root;
+		}
+		while (top > 0) {
+			int x = this.stack[--top];
+			if (top + 2 > this.stack.length) {
+				this.stack = Arrays.copyOf(this.stack, this.stack.length * 2);
+			}
+			if (this.links.left[x] != NIL) {
+				this.stack[top++] = this.links.left[x];
+			}
+			if (this.links.right[x] != NIL) {
+				this.stack[top++] = this.links.right[x];
+			}
+			this.links.parent[x] = UNLINKED;
+		}
+		this.root = NIL;
+		this.size = 0;
+	}
+
+	// ================== Internal functions of Slot Tree====================
+
+	// Nodes are slot + 1, so node 0 can be the black sentinel of the textbook algorithm
+
+	private int minimum(int x) {
+		while (this.links.left[x] != NIL) {
+			x = this.links.left[x];
+		}
+		return x;
+	}
+
+	private void rotateLeft(int x) {
+		int[] left = this.links.left;
+		int[] right = this.links.right;
+		int[] parent = this.links.parent;
+
+		int y = right[x];
+		right[x] = left[y];
+		if (left[y] != NIL) {
+			parent[left[y]] = x;
+		}
+		parent[y] = parent[x];
+		if (parent[x] == NIL) {
+			this.root = y;
+		} else if (x == left[parent[x]]) {
+			left[parent[x]] = y;
+		} else {
+			right[parent[x]] = y;
+		}
+		left[y] = x;
+		parent[x] = y;
+	}
+
+	private void rotateRight(int x) {
+		int[] left = this.links.left;
+		int[] right = this.links.right;
+		int[] parent = this.links.parent;
+
+		int y = left[x];
+		left[x] = right[y];
+		if (right[y] != NIL) {
+			parent[right[y]] = x;
+		}
+		parent[y] = parent[x];
+		if (parent[x] == NIL) {
+			this.root = y;
+		} else if (x == right[parent[x]]) {
+			right[parent[x]] = y;
+		} else {
+			left[parent[x]] = y;
+		}
+		right[y] = x;
+		parent[x] = y;
+	}
+
+	private void insertFixup(int z) {
+		int[] left = this.links.left;
+		int[] right = this.links.right;
+		int[] parent = this.links.parent;
+		boolean[] red = this.links.red;
+
+		while (red[parent[z]]) {
+			int p = parent[z];
+			int g = parent[p];
+			if (p == left[g]) {
+				int y = right[g];
+				if (red[y]) {
+					red[p] = false;
+					red[y] = false;
+					red[g] = true;
+					z = g;
+				} else {
+					if (z == right[p]) {
+						z = p;
+						rotateLeft(z);
+					}
+					red[parent[z]] = false;
+					red[parent[parent[z]]] = true;
+					rotateRight(parent[parent[z]]);
+				}
+			} else {
+				int y = left[g];
+				if (red[y]) {
+					red[p] = false;
+					red[y] = false;
+					red[g] = true;
+					z = g;
+				} else {
+					if (z == left[p]) {
+						z = p;
+						rotateRight(z);
+					}
+					red[parent[z]] = false;
+					red[parent[parent[z]]] = true;
+					rotateLeft(parent[parent[z]]);
+				}
+			}
+		}
+		red[this.root] = false;
+	}
+
+	private void transplant(int u, int v) {
+		int[] parent = this.links.parent;
+		if (parent[u] == NIL) {
+			this.root = v;
+		} else if (u == this.links.left[parent[u]]) {
+			this.links.left[parent[u]] = v;
+		} else {
+			this.links.right[parent[u]] = v;
+		}
+		parent[v] = parent[u];
+	}
+
+	private void delete(int z) {
+		int[] left = this.links.left;
+		int[] right = this.links.right;
+		int[] parent = this.links.parent;
+		boolean[] red = this.links.red;
+
+		int y = z;
+		boolean yWasRed = red[y];
+		int x;
+		if (left[z] == NIL) {
+			x = right[z];
+			transplant(z, right[z]);
+		} else if (right[z] == NIL) {
+			x = left[z];
+			transplant(z, left[z]);
+		} else {
+			y = minimum(right[z]);
+			yWasRed = red[y];
+			x = right[y];
+			if (parent[y] == z) {
+				parent[x] = y;
+			} else {
+				transplant(y, right[y]);
+				right[y] = right[z];
+				parent[right[y]] = y;
+			}
+			transplant(z, y);
+			left[y] = left[z];
+			parent[left[y]] = y;
+			red[y] = red[z];
+		}
+		if (!yWasRed) {
+			deleteFixup(x);
+		}
+		parent[z] = UNLINKED;
+	}
+
+	private void deleteFixup(int x) {
+		int[] left = this.links.left;
+		int[] right = this.links.right;
+		int[] parent = this.links.parent;
+		boolean[] red = this.links.red;
+
+		while (x != this.root && !red[x]) {
+			if (x == left[parent[x]]) {
+				int w = right[parent[x]];
+				if (red[w]) {
+					red[w] = false;
+					red[parent[x]] = true;
+					rotateLeft(parent[x]);
+					w = right[parent[x]];
+				}
+				if (!red[left[w]] && !red[right[w]]) {
+					red[w] = true;
+					x = parent[x];
+				} else {
+					if (!red[right[w]]) {
+						red[left[w]] = false;
+						red[w] = true;
+						rotateRight(w);
+						w = right[parent[x]];
+					}
+					red[w] = red[parent[x]];
+					red[parent[x]] = false;
+					red[right[w]] = false;
+					rotateLeft(parent[x]);
+					x = this.root;
+				}
+			} else {
+				int w = left[parent[x]];
+				if (red[w]) {
+					red[w] = false;
+					red[parent[x]] = true;
+					rotateRight(parent[x]);
+					w = left[parent[x]];
+				}
+				if (!red[right[w]] && !red[left[w]]) {
+					red[w] = true;
+					x = parent[x];
+				} else {
+					if (!red[left[w]]) {
+						red[right[w]] = false;
+						red[w] = true;
+						rotateLeft(w);
+						w = left[parent[x]];
+					}
+					red[w] = red[parent[x]];
+					red[parent[x]] = false;
+					red[left[w]] = false;
+					rotateRight(parent[x]);
+					x = this.root;
+				}
+			}
+		}
+		red[x] = false;
+	}
+
+	// Link arrays indexed by node; node 0 is the sentinel
+	private static class Links {
+		private int[] left;
+		private int[] right;
+		private int[] parent;
+		private boolean[] red;
+
+		Links() {
+			this.left = new int[64];
+			this.right = new int[64];
+			this.parent = new int[64];
+			this.red = new boolean[64];
+			Arrays.fill(this.parent, UNLINKED);
+		}
+
+		void ensureCapacity(int node) {
+			if (node < this.parent.length)
+				return;
+
+			int oldLength = this.parent.length;
+			int capacity = Math.max(oldLength * 2, node + 1);
+			this.left = Arrays.copyOf(this.left, capacity);
+			this.right = Arrays.copyOf(this.right, capacity);
+			this.parent = Arrays.copyOf(this.parent, capacity);
+			this.red = Arrays.copyOf(this.red, capacity);
+			Arrays.fill(this.parent, oldLength, capacity, UNLINKED);
+		}
+	}
+}
@@ -0,0 +1,161 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+
+// Runs an input file while keeping what is needed to restart it after a crash in
+// a directory: a binary snapshot of the scheduler, taken every so many commands,
+// and a journal of the commands applied since. A snapshot also records how many
+// commands it covers and how long the output file was at that point.
+//
+// A restart loads the snapshot, cuts the output file back to that length, replays
+// the journal with output on, and carries on with the input after the last
+// journaled command. The output file ends up the same as after an uninterrupted
+// run, and running a finished input again just leaves it as it is.
+public class SnapshotRunner {
+	private static final int MAGIC = 0x47415453;
+	private static final int VERSION = 1;
+
+	private File snapshotFile;
+	private File journalFile;
+	private int snapshotInterval;
+	private PendingQueueType queueType;
+
+	private Scheduler scheduler;
+	private OutputSink sink;
+	private FileOutputStream output;
+	private CommandJournal journal;
+	private CommandParser parser;
+	private long commandIndex;
+	private long lastSnapshotIndex;
+
+	public SnapshotRunner(File directory, int snapshotInterval, PendingQueueType queueType) {
+		this.snapshotFile = new File(directory, "snapshot.bin");
+		this.journalFile = new File(directory, "journal.bin");
+		this.snapshotInterval = snapshotInterval;
+		this.queueType = queueType;
+		this.parser = new CommandParser();
+	}
+
+	// ====== External functions of Snapshot Runner ======
+
+	public void run(String inputFile, String outputFile) throws IOException {
+		restore(outputFile);
+
+		try (BufferedReader reader = new BufferedReader(new FileReader(inputFile))) {
+			// The journal tail is replayed with output on, since the output file was
+			// cut back to the snapshot
+			ArrayList<String> tail = CommandJournal.read(this.journalFile, this.commandIndex);
+			for (String line : tail) {
+				execute(line);
+			}
+			// A fresh snapshot also clears a journal that may end in a torn record
+			boolean journaled = this.journalFile.length() > 0;
+			this.journal = new CommandJournal(this.journalFile);
+			if (journaled) {
+				writeSnapshot();
+			}
+
+			// Skipping what the snapshot and journal already cover
+			long skipped = 0;
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("//")) {
+					continue;
+				}
+				if (skipped++ < this.commandIndex) {
+					continue;
+				}
+
+				this.journal.append(this.commandIndex, line);
+				execute(line);
+				if (this.commandIndex - this.lastSnapshotIndex >= this.snapshotInterval) {
+					writeSnapshot();
+				}
+			}
+		} finally {
+			this.sink.close();
+			if (this.journal != null) {
+				this.journal.close();
+			}
+		}
+	}
+
+	// ====== Internal functions of Snapshot Runner ======
+
+	// Cuts the output file back to what the snapshot covers, or empties it when
+	// there is no usable snapshot, and loads the scheduler state
+	private void restore(String outputFile) throws IOException {
+		this.commandIndex = 0;
+		this.lastSnapshotIndex = 0;
+		DataInputStream in = null;
+		long outputLength = 0;
+		try {
+			if (this.snapshotFile.exists()) {
+				in = new DataInputStream(new BufferedInputStream(new FileInputStream(this.snapshotFile)));
+				if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+					throw new IOException("Not a snapshot of this version: " + this.snapshotFile);
+				}
+				this.commandIndex = in.readLong();
+				this.lastSnapshotIndex = this.commandIndex;
+				outputLength = in.readLong();
+
+				// Output the snapshot relies on has gone missing: start over instead
+				if (new File(outputFile).length() < outputLength) {
+					in.close();
+					in = null;
+					this.commandIndex = 0;
+					this.lastSnapshotIndex = 0;
+					outputLength = 0;
+				}
+			}
+
+			try (RandomAccessFile file = new RandomAccessFile(outputFile, "rw")) {
+				file.setLength(outputLength);
+			}
+			this.output = new FileOutputStream(outputFile, true);
+			this.sink = new OutputSink(this.output);
+			this.scheduler = new Scheduler(this.sink, this.queueType);
+
+			if (in != null) {
+				this.scheduler.readSnapshot(in);
+			}
+		} finally {
+			if (in != null) {
+				in.close();
+			}
+		}
+	}
+
+	private void execute(String line) {
+		CommandData cmd = this.parser.parse(line);
+		gatorAirTrafficScheduler.executeCommand(cmd, this.scheduler, this.sink);
+		this.commandIndex++;
+	}
+
+	// Written to a temporary file and moved into place, so a crash leaves either
+	// the old snapshot or the new one. Journal records the new one covers are
+	// skipped on restart even if the crash comes before the journal is truncated.
+	private void writeSnapshot() throws IOException {
+		this.sink.flush();
+		long outputLength = this.output.getChannel().position();
+
+		File temporary = new File(this.snapshotFile.getPath() + ".tmp");
+		try (FileOutputStream file = new FileOutputStream(temporary);
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(this.commandIndex);
+			out.writeLong(outputLength);
+			this.scheduler.writeSnapshot(out);
+			out.flush();
+			file.getFD().sync();
+		}
+		Files.move(temporary.toPath(), this.snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+
+		this.journal.truncate();
+		this.lastSnapshotIndex = this.commandIndex;
+	}
+}
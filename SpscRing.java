@@ -0,0 +1,150 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+// Bounded ring between exactly one producer thread and one consumer thread. The
+// entries are allocated up front and handed back and forth: the producer claims a
+// free entry, fills it and publishes it; the consumer takes it, reads it and
+// releases it. The two sides only share the head and tail counters, and each side
+// caches the other's counter so it rarely reads it. A side that has to wait spins
+// briefly and then parks for short periods, so a pipeline still runs on one core.
+// A consumer that stays idle parks until the producer publishes or closes.
+public class SpscRing<T> {
+	private static final int SPINS = 128;
+	private static final long PARK_NANOS = 20_000;
+
+	// After this many waits the consumer parks until it is unparked
+	private static final int LONG_WAIT = 1 << 10;
+
+	private Object[] entries;
+	private int mask;
+
+	// Entries published by the producer and released by the consumer
+	private AtomicLong tail;
+	private AtomicLong head;
+	private volatile boolean closed;
+
+	// The consumer while it is parked without a timeout
+	private volatile Thread waitingConsumer;
+
+	// Owned by the producer
+	private long producerTail;
+	private long cachedHead;
+
+	// Owned by the consumer
+	private long consumerHead;
+	private long cachedTail;
+
+	// The capacity is rounded up to a power of two
+	public SpscRing(int capacity, Supplier<T> factory) {
+		int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+		this.entries = new Object[size];
+		for (int i = 0; i < size; i++) {
+			this.entries[i] = factory.get();
+		}
+		this.mask = size - 1;
+		this.tail = new AtomicLong();
+		this.head = new AtomicLong();
+		this.closed = false;
+	}
+
+	// ====== Producer side ======
+
+	// The next free entry, waiting for the consumer if the ring is full
+	public T claim() {
+		int idle = 0;
+		while (this.producerTail - this.cachedHead == this.entries.length) {
+			this.cachedHead = this.head.get();
+			if (this.producerTail - this.cachedHead == this.entries.length) {
+				idle = backOff(idle);
+			}
+		}
+		return entry(this.producerTail);
+	}
+
+	// The next free entry, or null if the ring is full
+	public T tryClaim() {
+		if (this.producerTail - this.cachedHead == this.entries.length) {
+			this.cachedHead = this.head.get();
+			if (this.producerTail - this.cachedHead == this.entries.length)
+				return null;
+		}
+		return entry(this.producerTail);
+	}
+
+	// The tail is stored before the waiting consumer is read, and take() records the
+	// consumer before it reads the tail, so one of the two always sees the other
+	public void publish() {
+		this.tail.set(++this.producerTail);
+		wakeConsumer();
+	}
+
+	// No more entries will be published
+	public void close() {
+		this.closed = true;
+		wakeConsumer();
+	}
+
+	// ====== Consumer side ======
+
+	// The oldest published entry, waiting for the producer if the ring is empty.
+	// Returns null once the ring is closed and drained.
+	public T take() {
+		int idle = 0;
+		while (this.consumerHead == this.cachedTail) {
+			this.cachedTail = this.tail.get();
+			if (this.consumerHead != this.cachedTail)
+				break;
+			if (this.closed) {
+				// Entries published just before the close are still visible after it
+				this.cachedTail = this.tail.get();
+				if (this.consumerHead == this.cachedTail)
+					return null;
+				break;
+			}
+			if (idle < LONG_WAIT) {
+				idle = backOff(idle);
+			} else {
+				parkConsumer();
+			}
+		}
+		return entry(this.consumerHead);
+	}
+
+	// Stored like the tail in publish(), so a producer that flags a full ring before
+	// its last tryClaim() is seen by a consumer that checks the flag after this
+	public void release() {
+		this.head.set(++this.consumerHead);
+	}
+
+	// ====== Internal functions of Spsc Ring ======
+
+	@SuppressWarnings("unchecked")
+	private T entry(long sequence) {
+		return (T) this.entries[(int) sequence & this.mask];
+	}
+
+	private void parkConsumer() {
+		this.waitingConsumer = Thread.currentThread();
+		if (this.tail.get() == this.consumerHead && !this.closed) {
+			LockSupport.park(this);
+		}
+		this.waitingConsumer = null;
+	}
+
+	private void wakeConsumer() {
+		Thread consumer = this.waitingConsumer;
+		if (consumer != null) {
+			LockSupport.unpark(consumer);
+		}
+	}
+
+	private static int backOff(int idle) {
+		if (idle < SPINS) {
+			Thread.onSpinWait();
+		} else {
+			LockSupport.parkNanos(PARK_NANOS);
+		}
+		return idle + 1;
+	}
+}
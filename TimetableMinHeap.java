@@ -1,86 +1,116 @@
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
 
-import java.util.ArrayList;
-
+// Min heap of flight slots ordered by a time read from the store, ties broken by
+// flightID. The scheduler keeps one by ETA for landings and one by start time
+// for promotions.
 public class TimetableMinHeap {
-	private ArrayList<Flight> heap;
-
-	public TimetableMinHeap() {
-		this.heap = new ArrayList<>();
+	private FlightStore store;
+	private IntUnaryOperator key;
+	private int[] heap;
+	private int size;
+	private int[] positions;
+
+	// The key maps a slot to its time, e.g. store::getEndTime
+	public TimetableMinHeap(FlightStore store, IntUnaryOperator key) {
+		this.store = store;
+		this.key = key;
+		this.heap = new int[64];
+		this.size = 0;
+		this.positions = new int[64];
+		Arrays.fill(this.positions, -1);
 	}
 
 	// ============= External functions of Timetable Min Heap====================
 
-	public void insert(Flight flight) {
-		this.heap.add(flight);
-		heapifyUp(this.heap.size() - 1);
+	public void insert(int slot) {
+		if (this.size == this.heap.length) {
+			this.heap = Arrays.copyOf(this.heap, this.size * 2);
+		}
+		ensurePositions(slot);
+		this.heap[this.size] = slot;
+		this.positions[slot] = this.size;
+		heapifyUp(this.size++);
 	}
 
-	public ArrayList<Flight> popAllCompleted(int currentTime) {
-		ArrayList<Flight> completed = new ArrayList<>();
-		while (!this.heap.isEmpty() && this.heap.get(0).getEndTime() <= currentTime) {
-			completed.add(extractMin());
-		}
-		return completed;
+	// Removes and returns the earliest flight if its time is due by currentTime, else -1
+	public int popDue(int currentTime) {
+		if (this.size == 0 || this.key.applyAsInt(this.heap[0]) > currentTime)
+			return -1;
+
+		return removeAt(0);
 	}
 
-	public void clear() {
-		this.heap.clear();
+	// The earliest flight, or -1 when the heap is empty
+	public int peek() {
+		return this.size == 0 ? -1 : this.heap[0];
 	}
 
-	public boolean remove(Flight flight) {
-		if (this.heap.isEmpty())
-			return false;
+	public boolean contains(int slot) {
+		return slot < this.positions.length && this.positions[slot] != -1;
+	}
 
-		int index = -1;
-		for (int i = 0; i < this.heap.size(); i++) {
-			if (this.heap.get(i).getFlightID() == flight.getFlightID()) {
-				index = i;
-				break;
-			}
-		}
-		if (index == -1)
-			return false;
+	public int size() {
+		return this.size;
+	}
 
-		int lastIndex = this.heap.size() - 1;
-		if (index != lastIndex) {
-			swap(index, lastIndex);
-		}
-		this.heap.remove(lastIndex);
+	// Slot at a heap position, for walking every entry
+	public int get(int index) {
+		return this.heap[index];
+	}
 
-		// restore heap property (both directions possible)
-		if (index < this.heap.size()) {
-			heapifyUp(index);
-			heapifyDown(index);
+	public void clear() {
+		for (int i = 0; i < this.size; i++) {
+			this.positions[this.heap[i]] = -1;
 		}
+		this.size = 0;
+	}
 
+	public boolean remove(int slot) {
+		if (!contains(slot))
+			return false;
+
+		removeAt(this.positions[slot]);
 		return true;
 	}
 
+	// Restores the heap in place after the key of a flight already in it changed
+	public void updateKey(int slot) {
+		if (!contains(slot))
+			return;
+
+		heapifyUp(this.positions[slot]);
+		heapifyDown(this.positions[slot]);
+	}
+
 	// ================= Internal functions of Binary Heap =============
 
-	private Flight extractMin() {
-		if (this.heap.isEmpty())
-			return null;
+	private int removeAt(int index) {
+		int slot = this.heap[index];
+		this.positions[slot] = -1;
 
-		Flight minFlight = this.heap.get(0);
+		int lastIndex = --this.size;
+		if (index == lastIndex)
+			return slot;
 
-		if (this.heap.size() == 1) {
-			this.heap.clear();
-			return minFlight;
-		}
+		int moved = this.heap[lastIndex];
+		this.heap[index] = moved;
+		this.positions[moved] = index;
 
-		this.heap.set(0, this.heap.get(this.heap.size() - 1));
-		this.heap.remove(this.heap.size() - 1);
-		heapifyDown(0);
+		// restore heap property (both directions possible)
+		heapifyUp(index);
+		heapifyDown(this.positions[moved]);
 
-		return minFlight;
+		return slot;
 	}
 
-	private int compare(Flight flight1, Flight flight2) {
-		if (flight1.getEndTime() != flight2.getEndTime()) {
-			return Integer.compare(flight1.getEndTime(), flight2.getEndTime());
+	private int compare(int slot1, int slot2) {
+		int time1 = this.key.applyAsInt(slot1);
+		int time2 = this.key.applyAsInt(slot2);
+		if (time1 != time2) {
+			return Integer.compare(time1, time2);
 		}
-		return Integer.compare(flight1.getFlightID(), flight2.getFlightID());
+		return Integer.compare(this.store.getFlightID(slot1), this.store.getFlightID(slot2));
 	}
 
 	private int parent(int i) {
@@ -96,34 +126,49 @@ public class TimetableMinHeap {
 	}
 
 	private void swap(int i, int j) {
-		Flight temp = this.heap.get(i);
-		this.heap.set(i, this.heap.get(j));
-		this.heap.set(j, temp);
+		int temp = this.heap[i];
+		this.heap[i] = this.heap[j];
+		this.heap[j] = temp;
+
+		this.positions[this.heap[i]] = i;
+		this.positions[this.heap[j]] = j;
 	}
 
 	private void heapifyUp(int i) {
-		while (i > 0 && compare(this.heap.get(i), this.heap.get(parent(i))) < 0) {
+		while (i > 0 && compare(this.heap[i], this.heap[parent(i)]) < 0) {
 			swap(i, parent(i));
 			i = parent(i);
 		}
 	}
 
 	private void heapifyDown(int i) {
-		int minIndex = i;
-		int left = leftChild(i);
-		int right = rightChild(i);
+		while (true) {
+			int minIndex = i;
+			int left = leftChild(i);
+			int right = rightChild(i);
 
-		if (left < this.heap.size() && compare(this.heap.get(left), this.heap.get(minIndex)) < 0) {
-			minIndex = left;
-		}
-		if (right < this.heap.size() && compare(this.heap.get(right), this.heap.get(minIndex)) < 0) {
-			minIndex = right;
-		}
+			if (left < this.size && compare(this.heap[left], this.heap[minIndex]) < 0) {
+				minIndex = left;
+			}
+			if (right < this.size && compare(this.heap[right], this.heap[minIndex]) < 0) {
+				minIndex = right;
+			}
+
+			if (minIndex == i)
+				return;
 
-		if (minIndex != i) {
 			swap(i, minIndex);
-			heapifyDown(minIndex);
+			i = minIndex;
 		}
 	}
 
+	private void ensurePositions(int slot) {
+		if (slot < this.positions.length)
+			return;
+
+		int oldLength = this.positions.length;
+		this.positions = Arrays.copyOf(this.positions, Math.max(oldLength * 2, slot + 1));
+		Arrays.fill(this.positions, oldLength, this.positions.length, -1);
+	}
+
 }
@@ -0,0 +1,37 @@
+import java.io.*;
+
+// Converts a text command trace into the binary format read by
+// gatorAirTrafficScheduler --binary. Blank lines and // comments are dropped, the
+// same way the scheduler skips them.
+//
+// Usage: java TraceConverter <input.txt> <output.bin>
+public class TraceConverter {
+
+	public static void main(String[] args) {
+		if (args.length != 2) {
+			System.err.println("Usage: java TraceConverter <input.txt> <output.bin>");
+			System.exit(1);
+		}
+
+		try (BufferedReader reader = new BufferedReader(new FileReader(args[0]));
+				BinaryCommandWriter writer = new BinaryCommandWriter(new FileOutputStream(args[1]))) {
+
+			CommandParser parser = new CommandParser();
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("//")) {
+					continue;
+				}
+				writer.write(parser.parse(line), line);
+			}
+
+		} catch (FileNotFoundException e) {
+			System.err.println("Input file not found: " + args[0]);
+			System.exit(1);
+		} catch (IOException e) {
+			System.err.println("Error reading/writing file: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+}
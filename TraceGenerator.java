@@ -0,0 +1,282 @@
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Random;
+
+// Writes a reproducible command trace in the scheduler's input syntax. The same
+// options and seed always produce the same file.
+//
+// Usage: java TraceGenerator [--option=value ...] <output_file>
+public class TraceGenerator {
+	private static final CommandType[] MIX_TYPES = { CommandType.SUBMIT_FLIGHT, CommandType.CANCEL_FLIGHT,
+			CommandType.REPRIORITIZE, CommandType.ADD_RUNWAYS, CommandType.GROUND_HOLD, CommandType.TICK,
+			CommandType.PRINT_SCHEDULE, CommandType.PRINT_ACTIVE };
+	private static final String[] MIX_NAMES = { "submit", "cancel", "reprioritize", "addrunways", "groundhold",
+			"tick", "printschedule", "printactive" };
+
+	private long seed;
+	private int commandCount;
+	private int runwayCount;
+	private int airlineCount;
+	private double arrivalRate;
+	private int maxPriority;
+	private boolean skewedPriority;
+	private int minDuration;
+	private int maxDuration;
+	private boolean exponentialDuration;
+	private double[] mixWeights;
+
+	private Random random;
+	private double clock;
+	private int nextFlightID;
+	private ArrayList<Integer> submittedFlights;
+
+	public TraceGenerator() {
+		this.seed = 1;
+		this.commandCount = 10000;
+		this.runwayCount = 4;
+		this.airlineCount = 20;
+		this.arrivalRate = 1.0;
+		this.maxPriority = 10;
+		this.skewedPriority = false;
+		this.minDuration = 1;
+		this.maxDuration = 20;
+		this.exponentialDuration = false;
+		this.mixWeights = new double[] { 45, 5, 8, 1, 1, 30, 6, 4 };
+	}
+
+	public static void main(String[] args) {
+		TraceGenerator generator = new TraceGenerator();
+		String outputFile = null;
+
+		try {
+			for (String arg : args) {
+				if (arg.startsWith("--")) {
+					generator.setOption(arg);
+				} else {
+					outputFile = arg;
+				}
+			}
+			generator.validate();
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		}
+
+		if (outputFile == null) {
+			System.err.println("Usage: java TraceGenerator [--seed=N] [--commands=N] [--runways=N] [--airlines=N]");
+			System.err.println("       [--arrival-rate=X] [--priority-max=N] [--priority-dist=uniform|skewed]");
+			System.err.println("       [--duration-min=N] [--duration-max=N] [--duration-dist=uniform|exponential]");
+			System.err.println("       [--mix=submit=45,cancel=5,reprioritize=8,addrunways=1,groundhold=1,tick=30,");
+			System.err.println("              printschedule=6,printactive=4] <output_file>");
+			System.exit(1);
+		}
+
+		try (BufferedWriter writer = new BufferedWriter(new FileWriter(outputFile))) {
+			generator.generate(writer);
+		} catch (IOException e) {
+			System.err.println("Error writing file: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	// ====== External functions of Trace Generator ======
+
+	public void setOption(String arg) {
+		int eq = arg.indexOf('=');
+		if (eq < 0) {
+			throw new IllegalArgumentException("Option needs a value: " + arg);
+		}
+		String name = arg.substring(2, eq);
+		String value = arg.substring(eq + 1);
+
+		switch (name) {
+			case "seed":
+				this.seed = Long.parseLong(value);
+				break;
+			case "commands":
+				this.commandCount = Integer.parseInt(value);
+				break;
+			case "runways":
+				this.runwayCount = Integer.parseInt(value);
+				break;
+			case "airlines":
+				this.airlineCount = Integer.parseInt(value);
+				break;
+			case "arrival-rate":
+				this.arrivalRate = Double.parseDouble(value);
+				break;
+			case "priority-max":
+				this.maxPriority = Integer.parseInt(value);
+				break;
+			case "priority-dist":
+				this.skewedPriority = parseChoice(value, "uniform", "skewed");
+				break;
+			case "duration-min":
+				this.minDuration = Integer.parseInt(value);
+				break;
+			case "duration-max":
+				this.maxDuration = Integer.parseInt(value);
+				break;
+			case "duration-dist":
+				this.exponentialDuration = parseChoice(value, "uniform", "exponential");
+				break;
+			case "mix":
+				this.mixWeights = parseMix(value);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option: " + arg);
+		}
+	}
+
+	public void validate() {
+		if (this.commandCount < 0 || this.runwayCount < 1 || this.airlineCount < 1 || this.arrivalRate <= 0
+				|| this.maxPriority < 1 || this.minDuration < 0 || this.maxDuration < this.minDuration) {
+			throw new IllegalArgumentException("Invalid generator options");
+		}
+	}
+
+	public void generate(Writer writer) throws IOException {
+		this.random = new Random(this.seed);
+		this.clock = 0;
+		this.nextFlightID = 1;
+		this.submittedFlights = new ArrayList<>();
+
+		double totalWeight = 0;
+		for (double weight : this.mixWeights) {
+			totalWeight += weight;
+		}
+
+		writer.write("Initialize(" + this.runwayCount + ")\n");
+		for (int i = 0; i < this.commandCount; i++) {
+			writer.write(nextCommand(pickType(totalWeight)));
+			writer.write('\n');
+		}
+		writer.write("Quit()\n");
+	}
+
+	// ====== Internal functions of Trace Generator ======
+
+	private CommandType pickType(double totalWeight) {
+		double x = this.random.nextDouble() * totalWeight;
+		for (int i = 0; i < MIX_TYPES.length; i++) {
+			x -= this.mixWeights[i];
+			if (x < 0) {
+				return MIX_TYPES[i];
+			}
+		}
+		return CommandType.SUBMIT_FLIGHT;
+	}
+
+	private String nextCommand(CommandType type) {
+		int now = (int) this.clock;
+
+		switch (type) {
+			case CANCEL_FLIGHT:
+				if (!this.submittedFlights.isEmpty()) {
+					return "CancelFlight(" + takeSubmittedFlight() + ", " + now + ")";
+				}
+				break;
+
+			case REPRIORITIZE:
+				if (!this.submittedFlights.isEmpty()) {
+					int flightID = this.submittedFlights.get(this.random.nextInt(this.submittedFlights.size()));
+					return "Reprioritize(" + flightID + ", " + now + ", " + nextPriority() + ")";
+				}
+				break;
+
+			case ADD_RUNWAYS:
+				return "AddRunways(" + (1 + this.random.nextInt(2)) + ", " + now + ")";
+
+			case GROUND_HOLD:
+				int low = 1 + this.random.nextInt(this.airlineCount);
+				int high = low + this.random.nextInt(Math.max(1, this.airlineCount / 10));
+				return "GroundHold(" + low + ", " + high + ", " + now + ")";
+
+			case TICK:
+				// Ticks move the clock as far as a few arrivals would
+				this.clock += nextGap() * (1 + this.random.nextInt(4));
+				return "Tick(" + (int) this.clock + ")";
+
+			case PRINT_SCHEDULE:
+				return "PrintSchedule(" + now + ", " + (now + this.maxDuration * this.runwayCount) + ")";
+
+			case PRINT_ACTIVE:
+				return "PrintActive()";
+
+			default:
+				break;
+		}
+
+		// Submissions are the arrival process; anything without a target falls back to one
+		this.clock += nextGap();
+		int flightID = this.nextFlightID++;
+		this.submittedFlights.add(flightID);
+		return "SubmitFlight(" + flightID + ", " + (1 + this.random.nextInt(this.airlineCount)) + ", "
+				+ (int) this.clock + ", " + nextPriority() + ", " + nextDuration() + ")";
+	}
+
+	// Exponential gap between arrivals, so submissions form a Poisson process
+	private double nextGap() {
+		return -Math.log(1.0 - this.random.nextDouble()) / this.arrivalRate;
+	}
+
+	private int nextPriority() {
+		if (this.skewedPriority) {
+			// Most flights are low priority, a few are urgent
+			double x = this.random.nextDouble();
+			return 1 + (int) (this.maxPriority * x * x * x);
+		}
+		return 1 + this.random.nextInt(this.maxPriority);
+	}
+
+	private int nextDuration() {
+		int span = this.maxDuration - this.minDuration;
+		if (this.exponentialDuration) {
+			double mean = Math.max(1.0, span / 4.0);
+			double x = -Math.log(1.0 - this.random.nextDouble()) * mean;
+			return this.minDuration + (int) Math.min(span, x);
+		}
+		return this.minDuration + this.random.nextInt(span + 1);
+	}
+
+	private int takeSubmittedFlight() {
+		int index = this.random.nextInt(this.submittedFlights.size());
+		int last = this.submittedFlights.size() - 1;
+		int flightID = this.submittedFlights.get(index);
+		this.submittedFlights.set(index, this.submittedFlights.get(last));
+		this.submittedFlights.remove(last);
+		return flightID;
+	}
+
+	private static boolean parseChoice(String value, String first, String second) {
+		if (value.equals(first)) {
+			return false;
+		}
+		if (value.equals(second)) {
+			return true;
+		}
+		throw new IllegalArgumentException("Expected " + first + " or " + second + ": " + value);
+	}
+
+	private static double[] parseMix(String value) {
+		double[] weights = new double[MIX_TYPES.length];
+		for (String part : value.split(",")) {
+			int eq = part.indexOf('=');
+			String name = eq < 0 ? part.trim() : part.substring(0, eq).trim();
+			int index = -1;
+			for (int i = 0; i < MIX_NAMES.length; i++) {
+				if (MIX_NAMES[i].equalsIgnoreCase(name)) {
+					index = i;
+				}
+			}
+			if (index < 0 || eq < 0) {
+				throw new IllegalArgumentException("Bad mix entry: " + part);
+			}
+			weights[index] = Double.parseDouble(part.substring(eq + 1).trim());
+			if (weights[index] < 0) {
+				throw new IllegalArgumentException("Bad mix entry: " + part);
+			}
+		}
+		return weights;
+	}
+}
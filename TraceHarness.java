@@ -0,0 +1,186 @@
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Replays a command trace against the scheduler and reports throughput and
+// per-command-type latency percentiles. A command's latency covers parsing its
+// line and executing it; reading the trace happens before the clock starts.
+//
+// Usage: java TraceHarness [--warmup=N] [--runs=N] [--queue=type] [--output=file] <trace_file>
+public class TraceHarness {
+	private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+	public static void main(String[] args) {
+		int warmupRuns = 1;
+		int measuredRuns = 1;
+		PendingQueueType queueType = PendingQueueType.PAIRING;
+		String outputFile = null;
+		String traceFile = null;
+
+		try {
+			for (String arg : args) {
+				if (arg.startsWith("--warmup=")) {
+					warmupRuns = Integer.parseInt(arg.substring("--warmup=".length()));
+				} else if (arg.startsWith("--runs=")) {
+					measuredRuns = Integer.parseInt(arg.substring("--runs=".length()));
+				} else if (arg.startsWith("--queue=")) {
+					queueType = PendingQueueType.fromLabel(arg.substring("--queue=".length()));
+				} else if (arg.startsWith("--output=")) {
+					outputFile = arg.substring("--output=".length());
+				} else if (arg.startsWith("--")) {
+					throw new IllegalArgumentException("Unknown option: " + arg);
+				} else {
+					traceFile = arg;
+				}
+			}
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		}
+
+		if (traceFile == null || warmupRuns < 0 || measuredRuns < 1) {
+			System.err.println(
+					"Usage: java TraceHarness [--warmup=N] [--runs=N] [--queue=pairing|dary|bucket] [--output=file] <trace_file>");
+			System.exit(1);
+		}
+
+		try {
+			String[] commands = readTrace(traceFile);
+
+			for (int i = 0; i < warmupRuns; i++) {
+				replay(commands, queueType, null, null);
+			}
+
+			LatencySamples[] samples = new LatencySamples[CommandType.values().length];
+			for (int i = 0; i < samples.length; i++) {
+				samples[i] = new LatencySamples();
+			}
+			long elapsed = 0;
+			for (int i = 0; i < measuredRuns; i++) {
+				// Only the last run writes the output file, if one was asked for
+				elapsed += replay(commands, queueType, samples, i == measuredRuns - 1 ? outputFile : null);
+			}
+
+			report(traceFile, queueType, commands.length, measuredRuns, elapsed, samples);
+
+		} catch (FileNotFoundException e) {
+			System.err.println("Trace file not found: " + traceFile);
+			System.exit(1);
+		} catch (IOException e) {
+			System.err.println("Error reading/writing file: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	// ====== Internal functions of Trace Harness ======
+
+	private static String[] readTrace(String traceFile) throws IOException {
+		ArrayList<String> commands = new ArrayList<>();
+		try (BufferedReader reader = new BufferedReader(new FileReader(traceFile))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("//")) {
+					continue;
+				}
+				commands.add(line);
+			}
+		}
+		return commands.toArray(new String[0]);
+	}
+
+	// Runs the whole trace on a fresh scheduler and returns the wall time in
+	// nanoseconds. Samples are only recorded when a sink for them is given.
+	private static long replay(String[] commands, PendingQueueType queueType, LatencySamples[] samples,
+			String outputFile) throws IOException {
+		OutputStream out = outputFile != null ? new FileOutputStream(outputFile) : OutputStream.nullOutputStream();
+		try (OutputSink writer = new OutputSink(out)) {
+			Scheduler scheduler = new Scheduler(writer, queueType);
+			CommandParser parser = new CommandParser();
+
+			long runStart = System.nanoTime();
+			for (String line : commands) {
+				long start = System.nanoTime();
+				CommandData cmd = parser.parse(line);
+				gatorAirTrafficScheduler.executeCommand(cmd, scheduler, writer);
+				long end = System.nanoTime();
+
+				if (samples != null) {
+					samples[cmd.getType().ordinal()].add(end - start);
+				}
+			}
+			return System.nanoTime() - runStart;
+		}
+	}
+
+	private static void report(String traceFile, PendingQueueType queueType, int commandCount, int runs,
+			long elapsed, LatencySamples[] samples) {
+		double seconds = elapsed / 1e9;
+		long totalCommands = (long) commandCount * runs;
+		System.out.printf("trace: %s (%d commands, %d measured run%s, %s queue)%n", traceFile, commandCount, runs,
+				runs == 1 ? "" : "s", queueType);
+		System.out.printf("elapsed: %.3f s, throughput: %.0f commands/s%n%n", seconds, totalCommands / seconds);
+
+		System.out.printf("%-15s %10s %10s", "command", "count", "mean us");
+		for (double p : PERCENTILES) {
+			System.out.printf(" %10s", "p" + formatPercentile(p) + " us");
+		}
+		System.out.printf(" %10s%n", "max us");
+
+		for (CommandType type : CommandType.values()) {
+			LatencySamples typeSamples = samples[type.ordinal()];
+			if (typeSamples.size() == 0) {
+				continue;
+			}
+			typeSamples.sort();
+			System.out.printf("%-15s %10d %10.2f", type, typeSamples.size(), typeSamples.mean() / 1e3);
+			for (double p : PERCENTILES) {
+				System.out.printf(" %10.2f", typeSamples.percentile(p) / 1e3);
+			}
+			System.out.printf(" %10.2f%n", typeSamples.percentile(100) / 1e3);
+		}
+	}
+
+	private static String formatPercentile(double p) {
+		return p == Math.floor(p) ? Integer.toString((int) p) : Double.toString(p);
+	}
+
+	// Growable list of nanosecond latencies for one command type
+	private static class LatencySamples {
+		private long[] values;
+		private int count;
+		private long sum;
+
+		LatencySamples() {
+			this.values = new long[1024];
+			this.count = 0;
+			this.sum = 0;
+		}
+
+		void add(long nanos) {
+			if (this.count == this.values.length) {
+				this.values = Arrays.copyOf(this.values, this.count * 2);
+			}
+			this.values[this.count++] = nanos;
+			this.sum += nanos;
+		}
+
+		int size() {
+			return this.count;
+		}
+
+		double mean() {
+			return (double) this.sum / this.count;
+		}
+
+		void sort() {
+			Arrays.sort(this.values, 0, this.count);
+		}
+
+		// Nearest-rank percentile; the samples must be sorted first
+		long percentile(double p) {
+			int rank = (int) Math.ceil(p / 100.0 * this.count);
+			return this.values[Math.max(0, Math.min(this.count - 1, rank - 1))];
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package gator.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gator.FlightStore;
+import gator.PairingHeap;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PairingHeapBenchmark {
+
+	@Param({ "1000", "10000", "100000" })
+	public int pendingFlights;
+
+	private FlightStore store;
+	private PairingHeap heap;
+	private int[] slots;
+	private Random random;
+	private int nextFlightID;
+
+	@Setup
+	public void setup() {
+		this.store = new FlightStore();
+		this.heap = new PairingHeap(this.store);
+		this.slots = new int[this.pendingFlights];
+		this.random = new Random(42);
+		for (int i = 0; i < this.pendingFlights; i++) {
+			this.slots[i] = newFlight(i);
+			this.heap.push(this.slots[i]);
+		}
+		this.nextFlightID = this.pendingFlights;
+	}
+
+	// ================== Benchmarks ====================
+
+	// Pushes a new flight and pops the top one, recycling its slot
+	@Benchmark
+	public int pushPop() {
+		this.heap.push(newFlight(this.nextFlightID++));
+		int slot = this.heap.pop();
+		this.store.deactivate(slot);
+		this.store.release(slot);
+		return slot;
+	}
+
+	@Benchmark
+	public int increaseKey() {
+		int slot = this.slots[this.random.nextInt(this.pendingFlights)];
+		this.heap.increaseKey(slot, this.store.getPriority(slot) + 1);
+		return slot;
+	}
+
+	@Benchmark
+	public int decreaseKey() {
+		int slot = this.slots[this.random.nextInt(this.pendingFlights)];
+		this.heap.decreaseKey(slot, this.store.getPriority(slot) - 1);
+		return slot;
+	}
+
+	@Benchmark
+	public int eraseAndPush() {
+		int slot = this.slots[this.random.nextInt(this.pendingFlights)];
+		this.heap.erase(slot);
+		this.heap.push(slot);
+		return slot;
+	}
+
+	// ================== Helpers ====================
+
+	private int newFlight(int flightID) {
+		return this.store.add(flightID, this.random.nextInt(100), 0, this.random.nextInt(10),
+				1 + this.random.nextInt(50));
+	}
+}
@@ -0,0 +1,159 @@
+package gator.bench;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gator.FlightStore;
+import gator.PendingQueue;
+import gator.PendingQueueType;
+
+// Replays one seeded trace of queue operations against each pending queue
+// implementation. The trace pushes as often as it pops or erases, so the queue
+// stays around its starting size however long the benchmark runs.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PendingQueueBenchmark {
+	private static final int TRACE_LENGTH = 1 << 16;
+	private static final int BATCH = 1024;
+
+	private static final byte PUSH = 0;
+	private static final byte POP = 1;
+	private static final byte ERASE = 2;
+	private static final byte REPRIORITIZE = 3;
+
+	@Param({ "pairing", "dary", "bucket" })
+	public String queue;
+
+	@Param({ "10000", "100000" })
+	public int pendingFlights;
+
+	@Param({ "4", "1000" })
+	public int priorityLevels;
+
+	private FlightStore store;
+	private PendingQueue pending;
+	private byte[] ops;
+	private int[] picks;
+	private int[] values;
+	private int position;
+
+	// Slots in the queue, with each slot's index in that list, for random picks
+	private int[] members;
+	private int[] memberIndex;
+	private int memberCount;
+	private int nextFlightID;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		this.ops = new byte[TRACE_LENGTH];
+		this.picks = new int[TRACE_LENGTH];
+		this.values = new int[TRACE_LENGTH];
+		for (int i = 0; i < TRACE_LENGTH; i += 2) {
+			// Every push is paired with an operation that may take a flight out
+			this.ops[i] = PUSH;
+			this.values[i] = random.nextInt(this.priorityLevels);
+			int x = random.nextInt(10);
+			this.ops[i + 1] = x < 4 ? POP : x < 6 ? ERASE : REPRIORITIZE;
+			this.picks[i + 1] = random.nextInt(Integer.MAX_VALUE);
+			this.values[i + 1] = random.nextInt(this.priorityLevels);
+		}
+
+		this.store = new FlightStore();
+		this.pending = PendingQueueType.fromLabel(this.queue).create(this.store);
+		this.members = new int[64];
+		this.memberIndex = new int[64];
+		this.memberCount = 0;
+		this.nextFlightID = 0;
+		for (int i = 0; i < this.pendingFlights; i++) {
+			push(random.nextInt(this.priorityLevels));
+		}
+		this.position = 0;
+	}
+
+	// ================== Benchmarks ====================
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int replay() {
+		int checksum = 0;
+		for (int i = 0; i < BATCH; i++) {
+			int op = this.position;
+			this.position = (this.position + 1) & (TRACE_LENGTH - 1);
+
+			switch (this.ops[op]) {
+				case PUSH:
+					push(this.values[op]);
+					break;
+				case POP:
+					int slot = this.pending.pop();
+					forget(slot);
+					checksum += slot;
+					break;
+				case ERASE:
+					slot = pick(op);
+					this.pending.erase(slot);
+					forget(slot);
+					break;
+				default:
+					// A new priority drawn from the same levels, so the level count stays fixed
+					slot = pick(op);
+					if (this.values[op] > this.store.getPriority(slot)) {
+						this.pending.increaseKey(slot, this.values[op]);
+					} else {
+						this.pending.decreaseKey(slot, this.values[op]);
+					}
+					break;
+			}
+		}
+		return checksum;
+	}
+
+	// ================== Helpers ====================
+
+	private void push(int priority) {
+		int flightID = this.nextFlightID++;
+		int slot = this.store.add(flightID, 0, flightID, priority, 1);
+		if (slot >= this.memberIndex.length) {
+			this.memberIndex = Arrays.copyOf(this.memberIndex, slot * 2);
+		}
+		if (this.memberCount == this.members.length) {
+			this.members = Arrays.copyOf(this.members, this.memberCount * 2);
+		}
+		this.members[this.memberCount] = slot;
+		this.memberIndex[slot] = this.memberCount++;
+		this.pending.push(slot);
+	}
+
+	private int pick(int op) {
+		return this.members[this.picks[op] % this.memberCount];
+	}
+
+	// Drops a slot that left the queue and recycles it
+	private void forget(int slot) {
+		int index = this.memberIndex[slot];
+		int last = this.members[--this.memberCount];
+		this.members[index] = last;
+		this.memberIndex[last] = index;
+		this.store.deactivate(slot);
+		this.store.release(slot);
+	}
+}
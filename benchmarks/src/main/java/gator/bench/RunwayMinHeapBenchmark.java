@@ -0,0 +1,55 @@
+package gator.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gator.RunwayMinHeap;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RunwayMinHeapBenchmark {
+
+	@Param({ "1", "8", "64", "512" })
+	public int runwayCount;
+
+	@Param({ "2", "4" })
+	public int arity;
+
+	private RunwayMinHeap heap;
+	private Random random;
+
+	@Setup
+	public void setup() {
+		this.heap = new RunwayMinHeap(this.arity);
+		this.random = new Random(42);
+		for (int i = 1; i <= this.runwayCount; i++) {
+			this.heap.add(i, this.random.nextInt(100));
+		}
+	}
+
+	// ================== Benchmarks ====================
+
+	// One scheduling step: the earliest free runway becomes busy in place
+	@Benchmark
+	public int replaceMin() {
+		int runway = this.heap.peekMin();
+		this.heap.replaceMin(this.heap.getNextFreeTime(runway) + 1 + this.random.nextInt(50));
+		return runway;
+	}
+}
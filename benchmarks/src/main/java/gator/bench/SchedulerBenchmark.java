@@ -0,0 +1,74 @@
+package gator.bench;
+
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gator.OutputSink;
+import gator.Scheduler;
+
+// Per-command latency of the scheduler with a fixed backlog. Every command
+// runs at time 0 so nothing lands and the backlog keeps its size.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchedulerBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	public int pendingFlights;
+
+	@Param({ "1", "4", "16" })
+	public int runwayCount;
+
+	private Scheduler scheduler;
+	private Random random;
+	private int nextFlightID;
+
+	@Setup
+	public void setup() {
+		this.scheduler = new Scheduler(new OutputSink(OutputStream.nullOutputStream()));
+		this.random = new Random(42);
+		this.scheduler.initialize(this.runwayCount);
+		for (int i = 0; i < this.pendingFlights; i++) {
+			this.scheduler.submitFlight(i, this.random.nextInt(100), 0, this.random.nextInt(10),
+					1 + this.random.nextInt(50));
+		}
+		this.nextFlightID = this.pendingFlights;
+	}
+
+	// ================== Benchmarks ====================
+
+	@Benchmark
+	public void submitCancel() {
+		int flightID = this.nextFlightID++;
+		this.scheduler.submitFlight(flightID, this.random.nextInt(100), 0, this.random.nextInt(10),
+				1 + this.random.nextInt(50));
+		this.scheduler.cancelFlight(flightID, 0);
+	}
+
+	@Benchmark
+	public void reprioritize() {
+		this.scheduler.reprioritize(this.random.nextInt(this.pendingFlights), 0, this.random.nextInt(10));
+	}
+
+	@Benchmark
+	public void printSchedule() {
+		int from = this.random.nextInt(100);
+		this.scheduler.printSchedule(from, from + 50);
+	}
+}
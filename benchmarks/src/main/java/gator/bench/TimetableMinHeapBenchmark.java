@@ -0,0 +1,84 @@
+package gator.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gator.FlightStore;
+import gator.TimetableMinHeap;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimetableMinHeapBenchmark {
+
+	@Param({ "1000", "10000", "100000" })
+	public int scheduledFlights;
+
+	private FlightStore store;
+	private TimetableMinHeap heap;
+	private int[] slots;
+	private Random random;
+	private int currentTime;
+
+	@Setup
+	public void setup() {
+		this.store = new FlightStore();
+		this.heap = new TimetableMinHeap(this.store, this.store::getEndTime);
+		this.slots = new int[this.scheduledFlights];
+		this.random = new Random(42);
+
+		// One landing per time unit, inserted in random order
+		int[] order = new int[this.scheduledFlights];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		for (int i = order.length - 1; i > 0; i--) {
+			int j = this.random.nextInt(i + 1);
+			int swap = order[i];
+			order[i] = order[j];
+			order[j] = swap;
+		}
+		for (int i = 0; i < this.scheduledFlights; i++) {
+			int slot = this.store.add(i, 0, 0, 0, 1);
+			this.store.setEndTime(slot, order[i] + 1);
+			this.slots[i] = slot;
+			this.heap.insert(slot);
+		}
+		this.currentTime = 0;
+	}
+
+	// ================== Benchmarks ====================
+
+	// Advance time by one unit, land the flight due then and queue it again at the back
+	@Benchmark
+	public int popCompleted() {
+		this.currentTime++;
+		int slot = this.heap.popDue(this.currentTime);
+		this.store.setEndTime(slot, this.store.getEndTime(slot) + this.scheduledFlights);
+		this.heap.insert(slot);
+		return slot;
+	}
+
+	@Benchmark
+	public boolean removeInsert() {
+		int slot = this.slots[this.random.nextInt(this.scheduledFlights)];
+		boolean removed = this.heap.remove(slot);
+		this.heap.insert(slot);
+		return removed;
+	}
+}
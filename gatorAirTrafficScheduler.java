@@ -1,20 +1,123 @@
 import java.io.*;
+import java.nio.file.NoSuchFileException;
 
 public class gatorAirTrafficScheduler {
+	private static final int MAX_BATCH = 4096;
 
 	public static void main(String[] args) {
-		if (args.length < 1) {
-			System.err.println("Usage: java gatorAirTrafficScheduler <input_file>");
+		// --mmap reads the input through a memory-mapped file instead of line Strings,
+		// --binary reads a trace written by TraceConverter, --queue picks the pending
+		// queue implementation, --airports runs one scheduler per airport key on
+		// --shards threads, --pipeline parses, schedules and writes on separate
+		// threads, --snapshot-dir keeps snapshots and a journal there to restart from,
+		// --stats reports per-command latencies and counters to stderr on Quit and
+		// every --stats-every commands, --batch submits runs of SubmitFlight with one
+		// submit time together and reports their ETAs once per run, --serve takes
+		// commands from clients on a local port or unix:path instead of a file
+		boolean mapped = false;
+		boolean binary = false;
+		boolean multiAirport = false;
+		boolean pipelined = false;
+		boolean batched = false;
+		String serveAddress = null;
+		int shardCount = Runtime.getRuntime().availableProcessors();
+		String snapshotDir = null;
+		int snapshotInterval = 10000;
+		boolean statsEnabled = false;
+		int statsInterval = 0;
+		PendingQueueType queueType = PendingQueueType.PAIRING;
+		String inputFile = null;
+		try {
+			for (String arg : args) {
+				if (arg.equals("--mmap")) {
+					mapped = true;
+				} else if (arg.equals("--binary")) {
+					binary = true;
+				} else if (arg.equals("--batch")) {
+					batched = true;
+				} else if (arg.startsWith("--serve=")) {
+					serveAddress = arg.substring("--serve=".length());
+				} else if (arg.equals("--pipeline")) {
+					pipelined = true;
+				} else if (arg.equals("--airports")) {
+					multiAirport = true;
+				} else if (arg.startsWith("--snapshot-dir=")) {
+					snapshotDir = arg.substring("--snapshot-dir=".length());
+				} else if (arg.startsWith("--snapshot-every=")) {
+					snapshotInterval = Integer.parseInt(arg.substring("--snapshot-every=".length()));
+				} else if (arg.equals("--stats")) {
+					statsEnabled = true;
+				} else if (arg.startsWith("--stats-every=")) {
+					statsEnabled = true;
+					statsInterval = Integer.parseInt(arg.substring("--stats-every=".length()));
+				} else if (arg.startsWith("--shards=")) {
+					shardCount = Integer.parseInt(arg.substring("--shards=".length()));
+				} else if (arg.startsWith("--queue=")) {
+					queueType = PendingQueueType.fromLabel(arg.substring("--queue=".length()));
+				} else {
+					inputFile = arg;
+				}
+			}
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		}
+
+		int modes = (mapped ? 1 : 0) + (binary ? 1 : 0) + (multiAirport ? 1 : 0) + (pipelined ? 1 : 0)
+				+ (batched ? 1 : 0) + (snapshotDir != null ? 1 : 0);
+		// Stats follow a single scheduler through the commands in order
+		boolean statsSupported = !multiAirport && snapshotDir == null;
+		boolean serving = serveAddress != null;
+		// A server takes its commands from clients, so it has no input file and no other mode
+		boolean badInput = serving ? inputFile != null || modes > 0 : inputFile == null;
+		boolean badMode = modes > 1 || (statsEnabled && !statsSupported);
+		boolean badNumbers = shardCount < 1 || snapshotInterval < 1 || statsInterval < 0;
+		if (badInput || badMode || badNumbers) {
+			System.err.println("Usage: java gatorAirTrafficScheduler [--mmap | --binary | --batch | --pipeline");
+			System.err.println("       | --airports [--shards=N] | --snapshot-dir=dir [--snapshot-every=N]]");
+			System.err.println("       [--queue=pairing|dary|bucket]");
+			System.err.println("       [--stats [--stats-every=N]] <input_file>");
+			System.err.println("   or: java gatorAirTrafficScheduler --serve=port|unix:path [--queue=...] [--stats...]");
 			System.exit(1);
 		}
 
-		String inputFile = args[0];
+		SchedulerStats stats = statsEnabled ? new SchedulerStats(System.err, statsInterval) : null;
+		if (serving) {
+			serve(serveAddress, queueType, stats);
+			return;
+		}
+
 		String outputFile = inputFile.replace(".txt", "_output_file.txt");
+		if (binary) {
+			// Never the input itself
+			outputFile = (inputFile.endsWith(".bin") ? inputFile.substring(0, inputFile.length() - 4) : inputFile)
+					+ "_output_file.txt";
+		}
+
+		if (snapshotDir != null) {
+			runWithSnapshots(inputFile, outputFile, snapshotDir, snapshotInterval, queueType);
+		} else if (multiAirport) {
+			runMultiAirport(inputFile, outputFile, shardCount, queueType);
+		} else if (pipelined) {
+			runPipelined(inputFile, outputFile, queueType, stats);
+		} else if (mapped) {
+			runMapped(inputFile, outputFile, queueType, stats);
+		} else if (binary) {
+			runBinary(inputFile, outputFile, queueType, stats);
+		} else if (batched) {
+			runBatched(inputFile, outputFile, queueType, stats);
+		} else {
+			runBuffered(inputFile, outputFile, queueType, stats);
+		}
+	}
 
+	private static void runBuffered(String inputFile, String outputFile, PendingQueueType queueType,
+			SchedulerStats stats) {
 		try (BufferedReader reader = new BufferedReader(new FileReader(inputFile));
-				PrintWriter writer = new PrintWriter(new FileWriter(outputFile))) {
+				OutputSink writer = new OutputSink(new FileOutputStream(outputFile))) {
 
-			Scheduler scheduler = new Scheduler(writer);
+			Scheduler scheduler = new Scheduler(writer, queueType);
+			scheduler.setStats(stats);
 			CommandParser parser = new CommandParser();
 
 			String line;
@@ -40,7 +143,199 @@ public class gatorAirTrafficScheduler {
 		}
 	}
 
-	private static void executeCommand(CommandData cmd, Scheduler scheduler, PrintWriter writer) {
+	private static void runWithSnapshots(String inputFile, String outputFile, String snapshotDir,
+			int snapshotInterval, PendingQueueType queueType) {
+		try {
+			File directory = new File(snapshotDir);
+			directory.mkdirs();
+			new SnapshotRunner(directory, snapshotInterval, queueType).run(inputFile, outputFile);
+
+		} catch (FileNotFoundException e) {
+			System.err.println("Input file not found: " + inputFile);
+			System.exit(1);
+		} catch (IOException e) {
+			System.err.println("Error reading/writing file: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	private static void runPipelined(String inputFile, String outputFile, PendingQueueType queueType,
+			SchedulerStats stats) {
+		try (BufferedReader reader = new BufferedReader(new FileReader(inputFile));
+				OutputStream out = new FileOutputStream(outputFile)) {
+
+			new PipelinedRunner(queueType, stats).run(reader, out);
+
+		} catch (FileNotFoundException e) {
+			System.err.println("Input file not found: " + inputFile);
+			System.exit(1);
+		} catch (IOException e) {
+			System.err.println("Error reading/writing file: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	private static void runMultiAirport(String inputFile, String outputFile, int shardCount,
+			PendingQueueType queueType) {
+		try (BufferedReader reader = new BufferedReader(new FileReader(inputFile));
+				OutputStream out = new BufferedOutputStream(new FileOutputStream(outputFile), 1 << 16)) {
+
+			new MultiAirportRunner(shardCount, queueType).run(reader, out);
+
+		} catch (FileNotFoundException e) {
+			System.err.println("Input file not found: " + inputFile);
+			System.exit(1);
+		} catch (IOException e) {
+			System.err.println("Error reading/writing file: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	private static void runMapped(String inputFile, String outputFile, PendingQueueType queueType,
+			SchedulerStats stats) {
+		try (MappedCommandReader reader = new MappedCommandReader(inputFile);
+				OutputSink writer = new OutputSink(new FileOutputStream(outputFile))) {
+
+			Scheduler scheduler = new Scheduler(writer, queueType);
+			scheduler.setStats(stats);
+			CommandData cmd = new CommandData(CommandType.UNKNOWN, null, null);
+
+			// The reader decodes straight from the mapped bytes into one reused holder
+			while (reader.next(cmd)) {
+				executeCommand(cmd, scheduler, writer);
+			}
+
+		} catch (NoSuchFileException e) {
+			System.err.println("Input file not found: " + inputFile);
+			System.exit(1);
+		} catch (IOException e) {
+			System.err.println("Error reading/writing file: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	private static void runBinary(String inputFile, String outputFile, PendingQueueType queueType,
+			SchedulerStats stats) {
+		try (BinaryCommandReader reader = new BinaryCommandReader(new FileInputStream(inputFile));
+				OutputSink writer = new OutputSink(new FileOutputStream(outputFile))) {
+
+			Scheduler scheduler = new Scheduler(writer, queueType);
+			scheduler.setStats(stats);
+			CommandData cmd = new CommandData(CommandType.UNKNOWN, null, null);
+
+			// Commands come out already decoded, into one reused holder
+			while (reader.next(cmd)) {
+				executeCommand(cmd, scheduler, writer);
+			}
+
+		} catch (FileNotFoundException e) {
+			System.err.println("Input file not found: " + inputFile);
+			System.exit(1);
+		} catch (IOException e) {
+			System.err.println("Error reading/writing file: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	private static void serve(String address, PendingQueueType queueType, SchedulerStats stats) {
+		try {
+			ServerRunner server = new ServerRunner(address, queueType, stats);
+			System.out.println("Listening on " + server.getAddress());
+
+			// Ctrl-C or a kill still applies the commands already received and removes
+			// a unix socket file before the JVM exits
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				server.close();
+				try {
+					server.awaitStopped();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}, "server-shutdown"));
+			server.run();
+
+		} catch (NumberFormatException e) {
+			System.err.println("Not a port or unix:path: " + address);
+			System.exit(1);
+		} catch (IOException e) {
+			System.err.println("Server error: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	private static void runBatched(String inputFile, String outputFile, PendingQueueType queueType,
+			SchedulerStats stats) {
+		try (BufferedReader reader = new BufferedReader(new FileReader(inputFile));
+				OutputSink writer = new OutputSink(new FileOutputStream(outputFile))) {
+
+			Scheduler scheduler = new Scheduler(writer, queueType);
+			scheduler.setStats(stats);
+			CommandParser parser = new CommandParser();
+			CommandData[] batch = new CommandData[MAX_BATCH];
+			for (int i = 0; i < MAX_BATCH; i++) {
+				batch[i] = new CommandData(CommandType.UNKNOWN, new int[5], null);
+			}
+			int size = 0;
+
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("//")) {
+					continue;
+				}
+
+				// The holder after the run doubles as the next command
+				CommandData cmd = batch[size];
+				parser.decode(line, 0, line.length(), cmd);
+				boolean joins = cmd.getType() == CommandType.SUBMIT_FLIGHT
+						&& (size == 0 || cmd.getParam(2) == batch[0].getParam(2));
+				if (joins && size < MAX_BATCH - 1) {
+					size++;
+					continue;
+				}
+
+				executeBatch(batch, size, scheduler, writer);
+				batch[size] = batch[0];
+				batch[0] = cmd;
+				size = 0;
+				if (joins) {
+					size = 1;
+				} else {
+					executeCommand(cmd, scheduler, writer);
+				}
+			}
+			executeBatch(batch, size, scheduler, writer);
+
+		} catch (FileNotFoundException e) {
+			System.err.println("Input file not found: " + inputFile);
+			System.exit(1);
+		} catch (IOException e) {
+			System.err.println("Error reading/writing file: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	// A single command keeps the output of an ordinary run
+	private static void executeBatch(CommandData[] batch, int size, Scheduler scheduler, OutputSink writer) {
+		if (size == 1) {
+			executeCommand(batch[0], scheduler, writer);
+		} else if (size > 1) {
+			scheduler.beginCommand(CommandType.SUBMIT_FLIGHT);
+			try {
+				scheduler.applyBatch(batch, 0, size);
+			} catch (Exception e) {
+				writer.println("Error executing batch starting at: " + batch[0].getRawCommand());
+				writer.println("Error message: " + e.getMessage());
+				StringWriter trace = new StringWriter();
+				e.printStackTrace(new PrintWriter(trace));
+				writer.print(trace.toString());
+			}
+			scheduler.endCommand();
+		}
+	}
+
+	static void executeCommand(CommandData cmd, Scheduler scheduler, OutputSink writer) {
+		scheduler.beginCommand(cmd.getType());
 		try {
 			switch (cmd.getType()) {
 				case INITIALIZE:
@@ -111,7 +406,10 @@ public class gatorAirTrafficScheduler {
 		} catch (Exception e) {
 			writer.println("Error executing command: " + cmd.getRawCommand());
 			writer.println("Error message: " + e.getMessage());
-			e.printStackTrace(writer);
+			StringWriter trace = new StringWriter();
+			e.printStackTrace(new PrintWriter(trace));
+			writer.print(trace.toString());
 		}
+		scheduler.endCommand();
 	}
 }
@@ -0,0 +1,70 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// --batch reports a run of same-time submits differently, but must leave the same
+// schedule behind as submitting them one by one: the same PrintActive output and
+// the same landings
+class BatchSubmitTest {
+
+	@TempDir
+	Path directory;
+
+	// batch.txt has a burst at time 0, while runways are idle and flights go one at
+	// a time, and one at time 3 with every runway busy; both hold a duplicate ID
+	@Test
+	void burstsMatchSerialRun() throws IOException {
+		Path input = SchedulerRuns.sample("batch", this.directory);
+		byte[] batched = SchedulerRuns.run(input, "--batch");
+		assertArrayEquals(SchedulerRuns.expected("batch"), batched);
+
+		List<String> lines = lines(batched);
+		assertEquals(2, lines.stream().filter(line -> line.equals("Duplicate FlightID")).count());
+		// Only earlier flights the second burst moved, each once with its final ETA
+		assertEquals(1, lines.stream().filter(line -> line.startsWith("Updated ETAs")).count());
+		assertTrue(lines.contains("Updated ETAs: [3: 14, 4: 11]"));
+
+		assertEquals(schedule(serial(input)), schedule(lines));
+	}
+
+	@ParameterizedTest
+	@ValueSource(longs = { 1, 2, 3 })
+	void generatedTracesMatchSerialRun(long seed) throws IOException {
+		Path input = SchedulerRuns.trace(this.directory, seed, 5000);
+		List<String> batched = lines(SchedulerRuns.run(input, "--batch"));
+		assertEquals(schedule(serial(input)), schedule(batched));
+	}
+
+	private List<String> serial(Path input) throws IOException {
+		Path copy = this.directory.resolve("serial_" + input.getFileName());
+		Files.copy(input, copy);
+		return lines(SchedulerRuns.run(copy));
+	}
+
+	// PrintActive entries and landings, in output order
+	private static List<String> schedule(List<String> lines) {
+		List<String> schedule = new ArrayList<>();
+		for (String line : lines) {
+			if (line.startsWith("[flight") || line.equals("No active flights") || line.contains("has landed")) {
+				schedule.add(line);
+			}
+		}
+		return schedule;
+	}
+
+	private static List<String> lines(byte[] output) {
+		return List.of(new String(output, Charset.defaultCharset()).split(System.lineSeparator()));
+	}
+}
@@ -0,0 +1,64 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// Stepping through the landings and starts before a Tick one event at a time with
+// advanceToNextEvent() must leave the same output and state as the Tick alone
+class EventSteppingTest {
+
+	@TempDir
+	Path directory;
+
+	@ParameterizedTest
+	@ValueSource(longs = { 1, 2, 3, 4 })
+	void steppingMatchesSingleTick(long seed) throws IOException {
+		List<String> lines = Files.readAllLines(SchedulerRuns.trace(this.directory, seed, 3000));
+		int[] steps = new int[1];
+		assertEquals(replay(lines, null), replay(lines, steps));
+		assertTrue(steps[0] > 0);
+	}
+
+	// Steps before each Tick and counts the steps when steps is given
+	private static String replay(List<String> lines, int[] steps) {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		CommandParser parser = new CommandParser();
+		try (OutputSink sink = new OutputSink(buffer)) {
+			Scheduler scheduler = new Scheduler(sink, PendingQueueType.PAIRING);
+			for (String line : lines) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("//")) {
+					continue;
+				}
+				CommandData cmd = parser.parse(line);
+				if (steps != null && cmd.getType() == CommandType.TICK) {
+					steps[0] += stepTo(scheduler, cmd.getParam(0));
+				}
+				gatorAirTrafficScheduler.executeCommand(cmd, scheduler, sink);
+			}
+		}
+		return buffer.toString(Charset.defaultCharset());
+	}
+
+	// Only events strictly between now and the Tick's time; the Tick handles the rest
+	private static int stepTo(Scheduler scheduler, int time) {
+		int steps = 0;
+		int event;
+		while ((event = scheduler.nextEventTime()) != -1 && event > scheduler.getCurrentTime() && event < time) {
+			assertEquals(event, scheduler.advanceToNextEvent());
+			assertEquals(event, scheduler.getCurrentTime());
+			assertTrue(scheduler.nextEventTime() == -1 || scheduler.nextEventTime() >= event);
+			steps++;
+		}
+		return steps;
+	}
+}
@@ -0,0 +1,25 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// The serial run over each sample input must match its recorded output byte for
+// byte. rebuild.txt re-initializes mid-run and moves time backwards, so it covers
+// the full-rebuild path as well; claims.txt gets there with two in-progress flights
+// on one runway, where the old HashMap order decides which of them frees it.
+class GoldenOutputTest {
+
+	@TempDir
+	Path directory;
+
+	@ParameterizedTest
+	@ValueSource(strings = { "mixed", "long", "rebuild", "claims" })
+	void matchesRecordedOutput(String sample) throws IOException {
+		Path input = SchedulerRuns.sample(sample, this.directory);
+		assertArrayEquals(SchedulerRuns.expected(sample), SchedulerRuns.run(input));
+	}
+}
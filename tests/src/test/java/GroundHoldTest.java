@@ -0,0 +1,53 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// GroundHold walks the airline index from the low end of the range, so its cost
+// follows the flights it finds, not how many airline IDs the range spans
+class GroundHoldTest {
+	private static final int FLIGHTS = 2000;
+	private static final int HOLDS = 10000;
+
+	@TempDir
+	Path directory;
+
+	// groundhold.txt holds [0, 2000000000] and similar ranges; its recorded output
+	// comes from the version that visited every airline ID in the range
+	@Test
+	void wideRangesMatchRecordedOutput() throws IOException {
+		Path input = SchedulerRuns.sample("groundhold", this.directory);
+		assertArrayEquals(SchedulerRuns.expected("groundhold"), SchedulerRuns.run(input));
+	}
+
+	// Walking the range would take seconds per hold; each of these finds at most
+	// the flights of a handful of airlines, so all of them take milliseconds
+	@Test
+	void wideRangesCostWhatTheyMatch() {
+		assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+			try (OutputSink sink = new OutputSink(OutputStream.nullOutputStream())) {
+				Scheduler scheduler = new Scheduler(sink, PendingQueueType.PAIRING);
+				CommandParser parser = new CommandParser();
+				run(scheduler, sink, parser, "Initialize(4)");
+				// Half the flights sit just inside the range, half just past it
+				for (int id = 0; id < FLIGHTS; id++) {
+					int airline = id % 2 == 0 ? 1999999990 + id % 10 : 2000000001 + id % 10;
+					run(scheduler, sink, parser, "SubmitFlight(" + id + ", " + airline + ", 0, 1, 1)");
+				}
+				for (int hold = 0; hold < HOLDS; hold++) {
+					run(scheduler, sink, parser, "GroundHold(0, 2000000000, 0)");
+				}
+			}
+		});
+	}
+
+	private static void run(Scheduler scheduler, OutputSink sink, CommandParser parser, String line) {
+		gatorAirTrafficScheduler.executeCommand(parser.parse(line), scheduler, sink);
+	}
+}
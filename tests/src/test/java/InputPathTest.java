@@ -0,0 +1,53 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+// Every pending queue and every way of reading the input must give the output of
+// the plain serial run, over the samples and over generated traces. --batch is
+// left out: it reports the ETAs of a burst once, so its output differs by design.
+class InputPathTest {
+	private static final String[][] OPTIONS = { { "--queue=pairing" }, { "--queue=dary" }, { "--queue=bucket" },
+			{ "--mmap" }, { "--pipeline" }, { "--pipeline", "--queue=bucket" } };
+
+	@TempDir
+	Path directory;
+
+	static Stream<Arguments> inputs() {
+		return Stream.of(Arguments.of("mixed", 0L), Arguments.of("long", 0L), Arguments.of("rebuild", 0L),
+				Arguments.of(null, 1L), Arguments.of(null, 2L), Arguments.of(null, 3L));
+	}
+
+	@ParameterizedTest
+	@MethodSource("inputs")
+	void textInputsMatchSerialRun(String sample, long seed) throws IOException {
+		Path input = input(sample, seed);
+		byte[] expected = SchedulerRuns.run(input);
+
+		for (String[] options : OPTIONS) {
+			assertArrayEquals(expected, SchedulerRuns.run(input, options), String.join(" ", options));
+		}
+	}
+
+	@ParameterizedTest
+	@MethodSource("inputs")
+	void binaryInputMatchesSerialRun(String sample, long seed) throws IOException {
+		Path input = input(sample, seed);
+		byte[] expected = SchedulerRuns.run(input);
+
+		Path binary = this.directory.resolve("converted.bin");
+		TraceConverter.main(new String[] { input.toString(), binary.toString() });
+		assertArrayEquals(expected, SchedulerRuns.run(binary, "--binary"));
+	}
+
+	private Path input(String sample, long seed) throws IOException {
+		return sample != null ? SchedulerRuns.sample(sample, this.directory)
+				: SchedulerRuns.trace(this.directory, seed, 5000);
+	}
+}
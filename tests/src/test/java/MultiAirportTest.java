@@ -0,0 +1,86 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// Several airports' traces interleaved into one --airports input: the merged
+// output, split by key, must be each airport's own file run. Keyed lines that are
+// blank or a comment after the key are skipped, as they are without a key.
+class MultiAirportTest {
+	private static final String[] KEYS = { "JFK", "LAX", "ORD" };
+
+	@TempDir
+	Path directory;
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 2, 3 })
+	void mergedOutputMatchesSeparateRuns(int shards) throws IOException {
+		HashMap<String, List<String>> traces = new HashMap<>();
+		HashMap<String, List<String>> expected = new HashMap<>();
+		for (int i = 0; i < KEYS.length; i++) {
+			Path trace = SchedulerRuns.trace(this.directory, i + 1, 3000);
+			traces.put(KEYS[i], Files.readAllLines(trace, Charset.defaultCharset()));
+			expected.put(KEYS[i], lines(SchedulerRuns.run(trace)));
+		}
+
+		Path input = this.directory.resolve("airports.txt");
+		try (Writer writer = Files.newBufferedWriter(input, Charset.defaultCharset())) {
+			interleave(traces, new Random(shards), writer);
+		}
+		List<String> merged = lines(SchedulerRuns.run(input, "--airports", "--shards=" + shards));
+
+		HashMap<String, List<String>> split = new HashMap<>();
+		for (String key : KEYS) {
+			split.put(key, new ArrayList<>());
+		}
+		for (String line : merged) {
+			int colon = line.indexOf(": ");
+			assertTrue(colon > 0, "line without an airport key: " + line);
+			split.get(line.substring(0, colon)).add(line.substring(colon + 2));
+		}
+		for (String key : KEYS) {
+			assertEquals(expected.get(key), split.get(key), key);
+		}
+	}
+
+	// Takes the next line of a random airport each time, now and then adding a
+	// keyed line with nothing or only a comment after the key
+	private static void interleave(HashMap<String, List<String>> traces, Random random, Writer writer)
+			throws IOException {
+		int[] next = new int[KEYS.length];
+		int remaining = KEYS.length;
+		while (remaining > 0) {
+			int airport = random.nextInt(KEYS.length);
+			List<String> trace = traces.get(KEYS[airport]);
+			if (next[airport] == trace.size()) {
+				continue;
+			}
+			int extra = random.nextInt(20);
+			if (extra == 0) {
+				writer.write(KEYS[airport] + ":\n");
+			} else if (extra == 1) {
+				writer.write(KEYS[airport] + ": // between commands\n");
+			}
+			writer.write(KEYS[airport] + ": " + trace.get(next[airport]++) + "\n");
+			if (next[airport] == trace.size()) {
+				remaining--;
+			}
+		}
+	}
+
+	private static List<String> lines(byte[] output) {
+		return List.of(new String(output, Charset.defaultCharset()).split(System.lineSeparator()));
+	}
+}
@@ -0,0 +1,50 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+// Pushes that all lose to the root leave it one very long child list, which the
+// first pop has to merge. The old recursive pairing went one frame deep per pair
+// and overflowed the stack there; the iterative merge must not.
+class PairingHeapTest {
+	private static final int FLIGHTS = 200000;
+
+	// Small enough that a frame per pair of children could not fit
+	private static final long STACK_SIZE = 1 << 18;
+
+	@Test
+	void popsAfterLongChildList() throws InterruptedException {
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		Thread popper = new Thread(null, () -> {
+			try {
+				pushThenPopAll();
+			} catch (Throwable e) {
+				failure.set(e);
+			}
+		}, "pairing-heap", STACK_SIZE);
+		popper.start();
+		popper.join();
+
+		if (failure.get() != null) {
+			throw new AssertionError(failure.get());
+		}
+	}
+
+	private static void pushThenPopAll() {
+		FlightStore store = new FlightStore();
+		PairingHeap heap = new PairingHeap(store);
+		// The first flight has the highest priority; every later one ties on priority
+		// and loses on submit time, so each becomes the root's new first child
+		heap.push(store.add(0, 0, 0, 2, 1));
+		for (int id = 1; id < FLIGHTS; id++) {
+			heap.push(store.add(id, 0, id, 1, 1));
+		}
+		assertEquals(FLIGHTS, heap.size());
+
+		for (int id = 0; id < FLIGHTS; id++) {
+			assertEquals(id, store.getFlightID(heap.pop()));
+		}
+		assertEquals(-1, heap.pop());
+	}
+}
@@ -0,0 +1,183 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// One thread applies a trace while others keep reading views: every view must be
+// consistent in itself, and a reader must never see versions or state epochs go
+// backwards. The writer checks a fresh view against each Print command's output.
+class ScheduleViewTest {
+	private static final int READERS = 3;
+
+	@TempDir
+	Path directory;
+
+	@ParameterizedTest
+	@ValueSource(longs = { 1, 2 })
+	void readersSeeConsistentViews(long seed) throws Exception {
+		List<String> lines = Files.readAllLines(SchedulerRuns.trace(this.directory, seed, 20000));
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		OutputSink sink = new OutputSink(buffer);
+		Scheduler scheduler = new Scheduler(sink, PendingQueueType.PAIRING);
+		scheduler.enableViews();
+
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		Thread writer = new Thread(() -> {
+			try {
+				write(lines, scheduler, sink, buffer);
+			} catch (Throwable e) {
+				failure.compareAndSet(null, e);
+			}
+		}, "view-writer");
+
+		List<Thread> readers = new ArrayList<>();
+		long[] versionsSeen = new long[READERS];
+		for (int r = 0; r < READERS; r++) {
+			int reader = r;
+			readers.add(new Thread(() -> {
+				try {
+					versionsSeen[reader] = read(scheduler, writer);
+				} catch (Throwable e) {
+					failure.compareAndSet(null, e);
+				}
+			}, "view-reader-" + r));
+		}
+
+		for (Thread reader : readers) {
+			reader.start();
+		}
+		writer.start();
+		writer.join();
+		for (Thread reader : readers) {
+			reader.join();
+		}
+		sink.close();
+
+		if (failure.get() != null) {
+			throw new AssertionError(failure.get());
+		}
+		long seen = 0;
+		for (long versions : versionsSeen) {
+			seen += versions;
+		}
+		assertTrue(seen > READERS, "no reader saw a second view");
+		assertEquals(scheduler.getView().getVersion(), commandsIn(lines));
+	}
+
+	// Applies the commands, checking the epoch only grows and that the view published
+	// after each command is current and prints what PrintActive and PrintSchedule did
+	private static void write(List<String> lines, Scheduler scheduler, OutputSink sink, ByteArrayOutputStream buffer) {
+		CommandParser parser = new CommandParser();
+		long epoch = scheduler.getStateEpoch();
+		long commands = 0;
+		for (String line : lines) {
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("//")) {
+				continue;
+			}
+			CommandData cmd = parser.parse(line);
+			int start = buffer.size();
+			gatorAirTrafficScheduler.executeCommand(cmd, scheduler, sink);
+			sink.flush();
+			commands++;
+
+			assertTrue(scheduler.getStateEpoch() >= epoch);
+			epoch = scheduler.getStateEpoch();
+
+			ScheduleView view = scheduler.getView();
+			assertEquals(commands, view.getVersion());
+			assertEquals(epoch, view.getStateEpoch());
+			assertEquals(scheduler.getCurrentTime(), view.getCurrentTime());
+			if (cmd.getType() == CommandType.PRINT_ACTIVE) {
+				assertEquals(printed(buffer, start), view.formatActive());
+			} else if (cmd.getType() == CommandType.PRINT_SCHEDULE) {
+				assertEquals(printed(buffer, start), view.formatSchedule(cmd.getParam(0), cmd.getParam(1)));
+			}
+			if (cmd.getType() == CommandType.QUIT) {
+				break;
+			}
+		}
+	}
+
+	// Commands up to and including the first Quit
+	private static long commandsIn(List<String> lines) {
+		long commands = 0;
+		for (String line : lines) {
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("//")) {
+				continue;
+			}
+			commands++;
+			if (line.startsWith("Quit")) {
+				break;
+			}
+		}
+		return commands;
+	}
+
+	private static String printed(ByteArrayOutputStream buffer, int start) {
+		byte[] bytes = buffer.toByteArray();
+		return new String(bytes, start, bytes.length - start, Charset.defaultCharset());
+	}
+
+	// Reads views until the writer is done; returns how many versions it saw
+	private static long read(Scheduler scheduler, Thread writer) {
+		ScheduleView previous = scheduler.getView();
+		check(previous);
+		long versions = 1;
+		while (writer.isAlive() || writer.getState() == Thread.State.NEW) {
+			ScheduleView view = scheduler.getView();
+			if (view == previous) {
+				Thread.yield();
+				continue;
+			}
+			assertTrue(view.getVersion() > previous.getVersion());
+			assertTrue(view.getStateEpoch() >= previous.getStateEpoch());
+			check(view);
+			if (view.getStateEpoch() == previous.getStateEpoch()) {
+				assertEquals(previous.formatActive(), view.formatActive());
+			}
+			previous = view;
+			versions++;
+		}
+		return versions;
+	}
+
+	// Active flights in flightID order, the schedule in (ETA, flightID) order, and
+	// every scheduled flight active with the same times
+	private static void check(ScheduleView view) {
+		for (int i = 1; i < view.getFlightCount(); i++) {
+			assertTrue(view.getFlightID(i - 1) < view.getFlightID(i));
+		}
+		for (int i = 0; i < view.getFlightCount(); i++) {
+			assertTrue(view.getStartTime(i) <= view.getEndTime(i));
+		}
+
+		String schedule = view.formatSchedule(Integer.MIN_VALUE, Integer.MAX_VALUE);
+		if (schedule.startsWith("There are no flights")) {
+			return;
+		}
+		int previousEnd = Integer.MIN_VALUE;
+		int previousID = Integer.MIN_VALUE;
+		for (String entry : schedule.split(System.lineSeparator())) {
+			int flightID = Integer.parseInt(entry.substring(1, entry.length() - 1));
+			int index = view.indexOf(flightID);
+			assertTrue(index >= 0, "scheduled flight " + flightID + " is not active");
+			int end = view.getEndTime(index);
+			assertTrue(end > previousEnd || (end == previousEnd && flightID > previousID));
+			previousEnd = end;
+			previousID = flightID;
+		}
+	}
+}
@@ -0,0 +1,62 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+// Runs gatorAirTrafficScheduler the way the command line does, on inputs kept in
+// a test's temporary directory, and hands back the output file it wrote
+final class SchedulerRuns {
+
+	private SchedulerRuns() {
+	}
+
+	// Output of one run over a .txt or, with --binary, a .bin input
+	static byte[] run(Path input, String... options) throws IOException {
+		String[] args = new String[options.length + 1];
+		System.arraycopy(options, 0, args, 0, options.length);
+		args[options.length] = input.toString();
+		gatorAirTrafficScheduler.main(args);
+		return Files.readAllBytes(outputOf(input));
+	}
+
+	static Path outputOf(Path input) {
+		String name = input.getFileName().toString();
+		return input.resolveSibling(name.substring(0, name.lastIndexOf('.')) + "_output_file.txt");
+	}
+
+	// Copies samples/<name>.txt from the test resources
+	static Path sample(String name, Path directory) throws IOException {
+		Path copy = directory.resolve(name + ".txt");
+		try (InputStream in = resource(name + ".txt")) {
+			Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+		}
+		return copy;
+	}
+
+	static byte[] expected(String name) throws IOException {
+		try (InputStream in = resource(name + "_expected.txt")) {
+			return in.readAllBytes();
+		}
+	}
+
+	// A reproducible trace from TraceGenerator
+	static Path trace(Path directory, long seed, int commands) throws IOException {
+		Path trace = directory.resolve("trace" + seed + ".txt");
+		TraceGenerator generator = new TraceGenerator();
+		generator.setOption("--seed=" + seed);
+		generator.setOption("--commands=" + commands);
+		generator.validate();
+		try (Writer writer = Files.newBufferedWriter(trace)) {
+			generator.generate(writer);
+		}
+		return trace;
+	}
+
+	private static InputStream resource(String name) throws FileNotFoundException {
+		InputStream in = SchedulerRuns.class.getResourceAsStream("/samples/" + name);
+		if (in == null) {
+			throw new FileNotFoundException("No sample " + name);
+		}
+		return in;
+	}
+}
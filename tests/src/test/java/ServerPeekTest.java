@@ -0,0 +1,69 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.Charset;
+
+import org.junit.jupiter.api.Test;
+
+// PeekActive() and PeekSchedule(t1, t2) over a real connection: a peek answers
+// after the client's earlier commands, from a view that has them applied, and
+// prints what the matching Print command would
+class ServerPeekTest {
+
+	@Test
+	void peeksCatchUpWithAppliedCommands() throws Exception {
+		ServerRunner server = new ServerRunner("0", PendingQueueType.PAIRING, null);
+		Thread serving = new Thread(() -> {
+			try {
+				server.run();
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		}, "server");
+		serving.start();
+
+		InetSocketAddress address = (InetSocketAddress) server.getAddress();
+		try (Socket socket = new Socket(address.getAddress(), address.getPort())) {
+			BufferedReader in = new BufferedReader(
+					new InputStreamReader(socket.getInputStream(), Charset.defaultCharset()));
+			Writer out = new OutputStreamWriter(socket.getOutputStream(), Charset.defaultCharset());
+
+			// Sent in one go, so the peeks reach the server before the commands run
+			send(out, "Initialize(1)", "SubmitFlight(1, 1, 0, 5, 4)", "SubmitFlight(2, 1, 0, 3, 2)", "Tick(1)",
+					"PeekActive()", "Tick(2)", "PeekSchedule(0, 10)");
+			assertEquals("1 Runways are now available", in.readLine());
+			assertEquals("Flight 1 scheduled - ETA: 4", in.readLine());
+			assertEquals("Flight 2 scheduled - ETA: 6", in.readLine());
+			assertEquals("View after 4 commands, time 1", in.readLine());
+			assertEquals("[flight1, airline1, runway1, start0, ETA4]", in.readLine());
+			assertEquals("[flight2, airline1, runway1, start4, ETA6]", in.readLine());
+			assertEquals("View after 5 commands, time 2", in.readLine());
+			assertEquals("[2]", in.readLine());
+
+			// Peek names that are not Print commands go to the scheduler as usual
+			send(out, "PeekFlights()", "Quit()");
+			assertEquals("Unknown command: PeekFlights()", in.readLine());
+			assertEquals("Program Terminated!!", in.readLine());
+			assertTrue(in.readLine() == null);
+		} finally {
+			server.close();
+			server.awaitStopped();
+			serving.join();
+		}
+	}
+
+	private static void send(Writer out, String... lines) throws IOException {
+		for (String line : lines) {
+			out.write(line);
+			out.write('\n');
+		}
+		out.flush();
+	}
+}
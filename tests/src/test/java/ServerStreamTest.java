@@ -0,0 +1,95 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// A long command stream over a loopback connection must get back exactly what the
+// file run writes. The ring only holds two commands, so the selector thread keeps
+// running it full and has to stall the client and resume it.
+class ServerStreamTest {
+	private static final int RING_SIZE = 2;
+
+	@TempDir
+	Path directory;
+
+	@ParameterizedTest
+	@ValueSource(longs = { 1, 2 })
+	void streamMatchesFileRun(long seed) throws Exception {
+		Path input = SchedulerRuns.trace(this.directory, seed, 20000);
+		byte[] commands = Files.readAllBytes(input);
+		byte[] expected = SchedulerRuns.run(input);
+		assertServes(commands, expected);
+	}
+
+	// Without Quit the client closes its sending side instead, with the last line
+	// left without a newline; the server answers everything and then hangs up
+	@ParameterizedTest
+	@ValueSource(longs = { 3 })
+	void halfCloseMatchesFileRun(long seed) throws Exception {
+		Path trace = SchedulerRuns.trace(this.directory, seed, 20000);
+		String text = Files.readString(trace, Charset.defaultCharset());
+		text = text.substring(0, text.lastIndexOf("Quit()")).stripTrailing();
+		Path input = this.directory.resolve("noquit" + seed + ".txt");
+		Files.writeString(input, text, Charset.defaultCharset());
+
+		byte[] expected = SchedulerRuns.run(input);
+		assertServes(text.getBytes(Charset.defaultCharset()), expected);
+	}
+
+	private static void assertServes(byte[] commands, byte[] expected) throws Exception {
+		ServerRunner server = new ServerRunner("0", PendingQueueType.PAIRING, null, RING_SIZE);
+		Thread serving = new Thread(() -> {
+			try {
+				server.run();
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		}, "server");
+		serving.start();
+
+		byte[] received;
+		InetSocketAddress address = (InetSocketAddress) server.getAddress();
+		try (Socket socket = new Socket(address.getAddress(), address.getPort())) {
+			// Sent from another thread, since the server stops reading while the
+			// client leaves its output unread
+			AtomicReference<IOException> failure = new AtomicReference<>();
+			Thread sender = new Thread(() -> {
+				try {
+					OutputStream out = socket.getOutputStream();
+					out.write(commands);
+					out.flush();
+					socket.shutdownOutput();
+				} catch (IOException e) {
+					failure.set(e);
+				}
+			}, "sender");
+			sender.start();
+
+			InputStream in = socket.getInputStream();
+			received = in.readAllBytes();
+			sender.join();
+			if (failure.get() != null) {
+				throw failure.get();
+			}
+		} finally {
+			server.close();
+			server.awaitStopped();
+			serving.join();
+		}
+
+		assertArrayEquals(expected, received);
+		assertTrue(server.getStallCount() > 0, "the ring never ran full");
+	}
+}
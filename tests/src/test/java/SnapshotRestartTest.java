@@ -0,0 +1,52 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+// A run with --snapshot-dir is stopped partway by giving it only a prefix of the
+// input, then left the way a crash would: output that was never flushed is lost
+// and the journal may end in a torn record. Restarting on the whole input has to
+// produce the output of an uninterrupted run.
+class SnapshotRestartTest {
+
+	@TempDir
+	Path directory;
+
+	@ParameterizedTest
+	@CsvSource({ "0, 1, 1.0, false", "250, 7, 0.5, false", "1300, 50, 0.9, true", "2000, 3, 0.0, true",
+			"3001, 1000, 1.0, false" })
+	void restartMatchesUninterruptedRun(int cut, int every, double keptOutput, boolean tornJournal)
+			throws IOException {
+		Path whole = SchedulerRuns.trace(this.directory, 7, 3000);
+		byte[] expected = SchedulerRuns.run(whole);
+
+		Path input = this.directory.resolve("input.txt");
+		List<String> lines = Files.readAllLines(whole);
+		Files.write(input, lines.subList(0, Math.min(cut, lines.size())));
+		String[] options = { "--snapshot-dir=" + this.directory.resolve("state"), "--snapshot-every=" + every };
+		SchedulerRuns.run(input, options);
+
+		Path output = SchedulerRuns.outputOf(input);
+		try (RandomAccessFile file = new RandomAccessFile(output.toFile(), "rw")) {
+			file.setLength((long) (file.length() * keptOutput));
+		}
+		Path journal = this.directory.resolve("state").resolve("journal.bin");
+		if (tornJournal && Files.exists(journal)) {
+			Files.write(journal, new byte[] { 0, 0, 0 }, StandardOpenOption.APPEND);
+		}
+
+		Files.write(input, lines);
+		assertArrayEquals(expected, SchedulerRuns.run(input, options));
+
+		// Running a finished input again leaves its output as it is
+		assertArrayEquals(expected, SchedulerRuns.run(input, options));
+	}
+}